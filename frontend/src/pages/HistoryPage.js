@@ -1,4 +1,4 @@
-import { useEffect, useState, useMemo } from "react";
+import { useEffect, useState, useMemo, useRef, useCallback } from "react";
 import dayjs from "dayjs";
 import { Clock, MoreVertical, Wallet, Pencil, Trash2, X, List, Calendar } from "lucide-react";
 import ShiftForm from "../components/ShiftForm";
@@ -10,6 +10,9 @@ import { useWorkplace } from "../context/WorkplaceContext";
 import { shiftConfig, getShiftTypeMap } from "../utils/shiftUtils";
 import api from "../api/client";
 
+const PAGE_SIZE = 100;
+const MAX_PAGE_SIZE = 500; // the server's cap on ?limit
+
 export default function HistoryPage() {
     // Default to 60 or a safe number so we never send 0 if settings fail to load
     const { activeWorkplaceId } = useWorkplace();
@@ -19,6 +22,8 @@ export default function HistoryPage() {
 
     // --- Data States ---
     const [items, setItems] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [shiftTypes, setShiftTypes] = useState([]);
     const [filter, setFilter] = useState("all");
 
@@ -65,15 +70,58 @@ export default function HistoryPage() {
     const shiftTypeMap = useMemo(() => getShiftTypeMap(shiftTypes), [shiftTypes]);
 
     // --- Load Data ---
+    // History is paged server-side, newest first. Older pages are fetched as the
+    // user scrolls (or asks for them), never the whole history up front.
+    const loadedCount = useRef(0);
+    const loadingMore = useRef(false);
+    const sentinelRef = useRef(null);
+
     async function loadHistory() {
         try {
             const params = activeWorkplaceId ? { workplaceId: activeWorkplaceId } : {};
-            const res = await api.get("/history", { params });
-            setItems(res.data.items ?? []);
+            // Refresh about as much as is already on screen, so an edit doesn't scroll the list away
+            const limit = Math.min(Math.max(loadedCount.current, PAGE_SIZE), MAX_PAGE_SIZE);
+            const res = await api.get("/history", { params: { ...params, limit } });
+            const page = res.data.items ?? [];
+            loadedCount.current = page.length;
+            setItems(page);
+            setNextCursor(res.data.nextCursor ?? null);
         } catch { /* ignore */ }
     }
 
+    const loadMore = useCallback(async () => {
+        if (!nextCursor || loadingMore.current) return;
+        loadingMore.current = true;
+        setIsLoadingMore(true);
+        try {
+            const params = activeWorkplaceId ? { workplaceId: activeWorkplaceId } : {};
+            const res = await api.get("/history", { params: { ...params, ...nextCursor, limit: PAGE_SIZE } });
+            const page = res.data.items ?? [];
+            setItems(prev => {
+                const merged = prev.concat(page);
+                loadedCount.current = merged.length;
+                return merged;
+            });
+            setNextCursor(res.data.nextCursor ?? null);
+        } catch { /* ignore */ } finally {
+            loadingMore.current = false;
+            setIsLoadingMore(false);
+        }
+    }, [nextCursor, activeWorkplaceId]);
+
+    // Next page when the end of the list scrolls into view
+    useEffect(() => {
+        const sentinel = sentinelRef.current;
+        if (!sentinel || !nextCursor) return;
+        const observer = new IntersectionObserver((entries) => {
+            if (entries.some(e => e.isIntersecting)) loadMore();
+        }, { rootMargin: "400px" });
+        observer.observe(sentinel);
+        return () => observer.disconnect();
+    }, [nextCursor, loadMore, viewMode]);
+
     useEffect(() => {
+        loadedCount.current = 0;
         loadHistory();
         const params = activeWorkplaceId ? { workplaceId: activeWorkplaceId } : {};
         api.get("/shift-types", { params }).then(res => setShiftTypes(res.data)).catch(() => { });
@@ -192,8 +240,8 @@ export default function HistoryPage() {
     };
 
     // --- Filtering ---
-    const filteredItems = useMemo(() => {
-        if (filter === "all") return items;
+    const filterRange = useMemo(() => {
+        if (filter === "all") return null;
 
         const now = dayjs();
         let startCutoff = null;
@@ -226,19 +274,49 @@ export default function HistoryPage() {
         }
 
         console.log("Filter:", filter, "Range:", startCutoff?.format(), " -> ", endCutoff?.format());
+        return { startCutoff, endCutoff };
+    }, [filter]);
+
+    const itemDateTime = useCallback((item) => {
+        const dateStr = formatDate(item.date);
+        const timeStr = formatTime(item.startTime) || "00:00";
+        return dayjs(`${dateStr}T${timeStr}`);
+    }, [formatDate, formatTime]);
+
+    // A period filter needs every shift back to its start: keep paging only until the oldest one loaded is past it
+    useEffect(() => {
+        if (!filterRange || !nextCursor || items.length === 0) return;
+        if (!itemDateTime(items[items.length - 1]).isBefore(filterRange.startCutoff)) {
+            loadMore();
+        }
+    }, [filterRange, items, nextCursor, itemDateTime, loadMore]);
+
+    const filteredItems = useMemo(() => {
+        if (!filterRange) return items;
+        const { startCutoff, endCutoff } = filterRange;
 
         return items.filter((item) => {
-            const dateStr = formatDate(item.date);
-            const timeStr = formatTime(item.startTime) || "00:00";
-            const itemDateTime = dayjs(`${dateStr}T${timeStr}`);
+            const start = itemDateTime(item);
 
             // Logic: Must be AFTER startCutoff AND BEFORE endCutoff
-            const isAfterStart = itemDateTime.isAfter(startCutoff) || itemDateTime.isSame(startCutoff);
-            const isBeforeEnd = endCutoff ? itemDateTime.isBefore(endCutoff) : true;
+            const isAfterStart = start.isAfter(startCutoff) || start.isSame(startCutoff);
+            const isBeforeEnd = endCutoff ? start.isBefore(endCutoff) : true;
 
             return isAfterStart && isBeforeEnd;
         });
-    }, [items, filter, formatDate, formatTime]);
+    }, [items, filterRange, itemDateTime]);
+
+    const loadMoreControl = nextCursor && (
+        <div ref={sentinelRef} className="flex justify-center pt-2 pb-24" dir="rtl">
+            <button
+                onClick={loadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 rounded-xl text-xs font-medium text-skin-text-secondary bg-skin-bg-secondary border border-skin-border-secondary disabled:opacity-60"
+            >
+                {isLoadingMore ? "טוען..." : "טען משמרות קודמות"}
+            </button>
+        </div>
+    );
 
     return (
         <>
@@ -270,14 +348,17 @@ export default function HistoryPage() {
 
             {viewMode === "calendar" ? (
                 /* Calendar View */
-                <CalendarView
-                    shifts={items}
-                    isPremium={isPremium}
-                    onDayClick={(dayShifts) => {
-                        // Could open a modal showing shifts for that day
-                        console.log("Day shifts:", dayShifts);
-                    }}
-                />
+                <>
+                    <CalendarView
+                        shifts={items}
+                        isPremium={isPremium}
+                        onDayClick={(dayShifts) => {
+                            // Could open a modal showing shifts for that day
+                            console.log("Day shifts:", dayShifts);
+                        }}
+                    />
+                    {loadMoreControl}
+                </>
             ) : (
                 /* List View */
                 <>
@@ -298,7 +379,7 @@ export default function HistoryPage() {
                     </section>
 
                     {/* History List */}
-                    <section className="space-y-2 pb-24" dir="rtl">
+                    <section className={`space-y-2 ${nextCursor ? "" : "pb-24"}`} dir="rtl">
                         {filteredItems.map((item) => {
                             // Safety check: item.shiftType might be null if data is old
                             const typeKey = (item.shiftType || item.shiftCode || "middle").toLowerCase();
@@ -369,6 +450,7 @@ export default function HistoryPage() {
                             );
                         })}
                     </section>
+                    {loadMoreControl}
                 </>
             )}
 
@@ -0,0 +1,167 @@
+package dxp.hourtracker.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import dxp.hourtracker.service.HistoryPage;
+import dxp.hourtracker.service.IsraeliTaxCalculatorService;
+import dxp.hourtracker.service.NetSalaryBreakdown;
+import dxp.hourtracker.service.ShiftDto;
+import dxp.hourtracker.service.SummaryDto;
+import dxp.hourtracker.shift.Shift;
+
+/**
+ * Mapping loaded shifts to the response and serializing it, for a summary and
+ * a 100-row /api/history page: the old per-row HashMap DTOs, the ShiftDto
+ * records, and the records with the Blackbird module the app registers.
+ *
+ * The profile runs with -prof gc, so gc.alloc.rate.norm gives bytes allocated
+ * per response next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoSerializationBenchmark {
+
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final String SHIFT_TYPE_NAME = "משמרת בוקר";
+
+    // Configured the way Spring Boot configures the MVC mapper (JSR-310 module etc.)
+    private final ObjectMapper plainMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper blackbirdMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new BlackbirdModule()).build();
+
+    private List<Shift> recent;
+    private List<Shift> page;
+    private NetSalaryBreakdown breakdown;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        recent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            recent.add(shift(i, today.minusDays(i)));
+        }
+        page = new ArrayList<>();
+        for (int i = 0; i < HISTORY_PAGE_SIZE; i++) {
+            page.add(shift(i, today.minusDays(i / 2)));
+        }
+        breakdown = new IsraeliTaxCalculatorService()
+                .calculateNetSalary(4896.0, true, true, false, false, false, null);
+    }
+
+    private static Shift shift(long id, LocalDate date) {
+        return Shift.builder().id(id).userId("bench").date(date).startTime(LocalTime.of(7, 0))
+                .endTime(LocalTime.of(15, 0)).shiftType(SHIFT_TYPE_NAME).shiftTypeId(3L).hours(8.0)
+                .salary(408.0).overtimeSalary(0.0).tipAmount(20.0).build();
+    }
+
+    // --- The Map-based DTOs as the controllers used to build them ---
+
+    private static Map<String, Object> shiftMap(Shift s) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", s.getId());
+        m.put("date", s.getDate());
+        m.put("startTime", s.getStartTime());
+        m.put("endTime", s.getEndTime());
+        m.put("shiftType", SHIFT_TYPE_NAME);
+        m.put("shiftTypeId", s.getShiftTypeId());
+        m.put("hours", s.getHours());
+        m.put("salary", s.getSalary());
+        m.put("overtimeHours", s.getOvertimeHours());
+        m.put("overtimeSalary", s.getOvertimeSalary());
+        m.put("tipAmount", s.getTipAmount());
+        return m;
+    }
+
+    private Map<String, Object> summaryMap() {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("monthHours", 96.0);
+        summary.put("weekHours", 24.0);
+        summary.put("hourlyRate", 51.0);
+        summary.put("expectedMonthSalary", 4896.0);
+        summary.put("recentShifts", recent.stream().map(DtoSerializationBenchmark::shiftMap).toList());
+        summary.put("totalTips", 120.0);
+        summary.put("netSalaryBreakdown", breakdown);
+        return summary;
+    }
+
+    private Map<String, Object> historyMap() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", page.stream().map(DtoSerializationBenchmark::shiftMap).toList());
+        Shift last = page.get(page.size() - 1);
+        Map<String, Object> nextCursor = new HashMap<>();
+        nextCursor.put("cursorDate", last.getDate());
+        nextCursor.put("cursorId", last.getId());
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
+    // --- Records ---
+
+    private SummaryDto summaryDto() {
+        return new SummaryDto(96.0, 24.0, 51.0, 4896.0,
+                recent.stream().map(s -> ShiftDto.of(s, SHIFT_TYPE_NAME)).toList(), 120.0, breakdown);
+    }
+
+    private HistoryPage historyPageDto() {
+        Shift last = page.get(page.size() - 1);
+        return new HistoryPage(page.stream().map(s -> ShiftDto.of(s, SHIFT_TYPE_NAME)).toList(),
+                new HistoryPage.Cursor(last.getDate(), last.getId()));
+    }
+
+    @Benchmark
+    public byte[] summaryMaps() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(summaryMap());
+    }
+
+    @Benchmark
+    public byte[] summaryRecords() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(summaryDto());
+    }
+
+    @Benchmark
+    public byte[] summaryRecordsBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(summaryDto());
+    }
+
+    @Benchmark
+    public byte[] historyPageMaps() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(historyMap());
+    }
+
+    @Benchmark
+    public byte[] historyPageRecords() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(historyPageDto());
+    }
+
+    @Benchmark
+    public byte[] historyPageRecordsBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(historyPageDto());
+    }
+}
@@ -0,0 +1,64 @@
+package dxp.hourtracker.benchmark;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The LocalDateTime / TemporalAdjusters implementation WageCalculatorService
+ * used before the epoch-minute rewrite, kept only as a benchmark baseline.
+ */
+final class LegacyWageCalculator {
+
+    private static final double SHABBAT_MULTIPLIER = 1.5;
+    private static final int DEFAULT_SHABBAT_START = 15;
+    private static final int DEFAULT_SHABBAT_END = 5;
+
+    double calculateShiftSalary(LocalDateTime start, LocalDateTime end, double hourlyRate,
+            Double customShabbatRate, Integer shabbatStartHour, Integer shabbatEndHour) {
+
+        int startHour = shabbatStartHour != null ? shabbatStartHour : DEFAULT_SHABBAT_START;
+        int endHour = shabbatEndHour != null ? shabbatEndHour : DEFAULT_SHABBAT_END;
+
+        long totalMinutes = Duration.between(start, end).toMinutes();
+        if (totalMinutes <= 0)
+            return 0.0;
+
+        long shabbatMinutes = getShabbatOverlapMinutes(start, end, startHour, endHour);
+        long regularMinutes = totalMinutes - shabbatMinutes;
+
+        double effectiveShabbatRate = (customShabbatRate != null && customShabbatRate > 0)
+                ? customShabbatRate
+                : (hourlyRate * SHABBAT_MULTIPLIER);
+
+        double regularPay = (regularMinutes / 60.0) * hourlyRate;
+        double shabbatPay = (shabbatMinutes / 60.0) * effectiveShabbatRate;
+
+        return regularPay + shabbatPay;
+    }
+
+    private long getShabbatOverlapMinutes(LocalDateTime shiftStart, LocalDateTime shiftEnd, int startHour,
+            int endHour) {
+        LocalDateTime shabbatStart = getRelevantFriday(shiftStart, startHour, endHour);
+        LocalDateTime shabbatEnd = shabbatStart.with(TemporalAdjusters.next(DayOfWeek.SUNDAY))
+                .withHour(endHour).withMinute(0);
+
+        LocalDateTime overlapStart = shiftStart.isAfter(shabbatStart) ? shiftStart : shabbatStart;
+        LocalDateTime overlapEnd = shiftEnd.isBefore(shabbatEnd) ? shiftEnd : shabbatEnd;
+
+        if (overlapStart.isAfter(overlapEnd)) {
+            return 0;
+        }
+        return Duration.between(overlapStart, overlapEnd).toMinutes();
+    }
+
+    private LocalDateTime getRelevantFriday(LocalDateTime date, int startHour, int endHour) {
+        if (date.getDayOfWeek() == DayOfWeek.SUNDAY && date.getHour() < endHour) {
+            return date.with(TemporalAdjusters.previous(DayOfWeek.FRIDAY))
+                    .withHour(startHour).withMinute(0).withSecond(0);
+        }
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.FRIDAY))
+                .withHour(startHour).withMinute(0).withSecond(0);
+    }
+}
@@ -0,0 +1,136 @@
+package dxp.hourtracker.benchmark;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import dxp.hourtracker.HourTrackerApplication;
+import dxp.hourtracker.api.UserApiController;
+import dxp.hourtracker.service.ShiftHistoryService;
+import dxp.hourtracker.service.ShiftRollupService;
+import dxp.hourtracker.service.SummaryDto;
+import dxp.hourtracker.shift.ShiftRollup;
+
+/**
+ * GET /api/summary against an embedded H2 (MySQL mode) holding one user with
+ * 1k / 10k / 100k shifts: the controller as it is (rollup-backed) next to a
+ * full scan of the user's shifts, which is what it used to cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryBenchmark {
+
+    private static final String USER = "bench-user";
+
+    @Param({ "1000", "10000", "100000" })
+    public int shifts;
+
+    private ConfigurableApplicationContext context;
+    private UserApiController controller;
+    private ShiftHistoryService shiftHistoryService;
+    private OAuth2User principal;
+
+    private LocalDate monthStart;
+    private LocalDate monthEnd;
+    private LocalDate weekStart;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(HourTrackerApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:summary-bench-" + shifts
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "hourtracker.rollup.reconcile-on-startup=false",
+                        "logging.level.root=WARN")
+                .run();
+        controller = context.getBean(UserApiController.class);
+        shiftHistoryService = context.getBean(ShiftHistoryService.class);
+        principal = new DefaultOAuth2User(List.of(), Map.of("sub", USER), "sub");
+
+        today = LocalDate.now();
+        monthStart = YearMonth.now().atDay(1);
+        monthEnd = YearMonth.now().atEndOfMonth();
+        weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+
+        seed();
+    }
+
+    // Three shifts a day going back from today, then a rollup rebuild
+    private void seed() {
+        List<Object[]> rows = new ArrayList<>(shifts);
+        LocalTime[] starts = { LocalTime.of(6, 30), LocalTime.of(14, 30), LocalTime.of(22, 30) };
+        for (int i = 0; i < shifts; i++) {
+            LocalTime start = starts[i % 3];
+            rows.add(new Object[] { i + 1, USER, today.minusDays(i / 3), start, start.plusHours(8),
+                    "משמרת", 8.0, 408.0, 0.0, i % 5 == 0 ? 20.0 : 0.0 });
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO shifts (id, user_id, date, start_time, end_time, shift_type, hours, salary,"
+                        + " overtime_salary, tip_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                rows);
+        context.getBean(ShiftRollupService.class).reconcileUser(USER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SummaryDto summary() {
+        // No If-None-Match, so every call does the full read
+        return controller.summary(principal, null,
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    @Benchmark
+    public double[] summaryByFullScan() {
+        double[] totals = new double[4]; // month hours, month salary, month tips, week hours
+        shiftHistoryService.forEachShift(USER, null, s -> {
+            LocalDate period = ShiftRollup.periodDateOf(s.getDate(), s.getStartTime());
+            if (!period.isBefore(monthStart) && !period.isAfter(monthEnd)) {
+                totals[0] += s.getHours();
+                totals[1] += s.getSalary();
+                totals[2] += s.getTipAmount() != null ? s.getTipAmount() : 0.0;
+            }
+            if (!period.isBefore(weekStart) && !period.isAfter(today)) {
+                totals[3] += s.getHours();
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,68 @@
+package dxp.hourtracker.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dxp.hourtracker.service.IsraeliTaxCalculatorService;
+import dxp.hourtracker.service.NetSalaryBreakdown;
+import dxp.hourtracker.service.TaxProfile;
+
+/**
+ * Net salary breakdown for a low, middle and top-bracket gross salary: the
+ * (memoized) single call, an uncached spread of grosses, and a year in one batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaxCalculatorBenchmark {
+
+    @Param({ "6500", "18000", "52000" })
+    public double gross;
+
+    private final IsraeliTaxCalculatorService calculator = new IsraeliTaxCalculatorService();
+    private final LocalDate dischargeDate = LocalDate.now().minusMonths(12);
+
+    private final TaxProfile profile = TaxProfile.of(true, true, false, false, true, dischargeDate, LocalDate.now());
+    private double[] year;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        year = new double[12];
+        for (int month = 0; month < 12; month++) {
+            year[month] = gross + month * 137.25;
+        }
+    }
+
+    @Benchmark
+    public NetSalaryBreakdown calculateNetSalary() {
+        return calculator.calculateNetSalary(gross, true, true, false, false, true, dischargeDate);
+    }
+
+    // A different gross each call (past the memo's reach), i.e. the raw bracket math
+    @Benchmark
+    public NetSalaryBreakdown calculateNetSalaryUncached() {
+        next = (next + 1) & 0xFFFF;
+        return calculator.calculateNetSalary(gross + next * 0.01 + 1_000, profile);
+    }
+
+    @Benchmark
+    public NetSalaryBreakdown[] calculateNetSalariesForYear() {
+        return calculator.calculateNetSalaries(year, profile);
+    }
+}
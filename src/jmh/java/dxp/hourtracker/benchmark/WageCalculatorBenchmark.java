@@ -0,0 +1,77 @@
+package dxp.hourtracker.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dxp.hourtracker.service.WageCalculatorService;
+
+/**
+ * Shift pricing: the current epoch-minute engine (object and primitive entry
+ * points) against the previous LocalDateTime implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WageCalculatorBenchmark {
+
+    @Param({ "weekday", "overnight", "shabbat" })
+    public String shift;
+
+    private final WageCalculatorService current = new WageCalculatorService();
+    private final LegacyWageCalculator legacy = new LegacyWageCalculator();
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long startMinute;
+    private long endMinute;
+
+    @Setup
+    public void setUp() {
+        switch (shift) {
+            case "weekday" -> { // Tuesday 07:00-15:00
+                start = LocalDateTime.of(2026, 3, 3, 7, 0);
+                end = LocalDateTime.of(2026, 3, 3, 15, 0);
+            }
+            case "overnight" -> { // Wednesday 22:30 - Thursday 07:15
+                start = LocalDateTime.of(2026, 3, 4, 22, 30);
+                end = LocalDateTime.of(2026, 3, 5, 7, 15);
+            }
+            default -> { // Friday 12:00 - Saturday 02:00, crosses into Shabbat
+                start = LocalDateTime.of(2026, 3, 6, 12, 0);
+                end = LocalDateTime.of(2026, 3, 7, 2, 0);
+            }
+        }
+        startMinute = WageCalculatorService.epochMinute(start);
+        endMinute = WageCalculatorService.epochMinute(end);
+    }
+
+    @Benchmark
+    public double legacy() {
+        return legacy.calculateShiftSalary(start, end, 51.0, null, 15, 5);
+    }
+
+    @Benchmark
+    public double current() {
+        return current.calculateShiftSalary(start, end, 51.0, null, 15, 5);
+    }
+
+    @Benchmark
+    public double currentPrimitive() {
+        return current.calculateShiftSalary(startMinute, endMinute, 51.0, 0.0, 15, 5);
+    }
+}
@@ -0,0 +1,68 @@
+package dxp.hourtracker.api;
+
+import dxp.hourtracker.service.ShiftExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class ExportApiController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType XLSX = MediaType
+            .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ShiftExportService shiftExportService;
+
+    /**
+     * Downloads the shifts dated in [from, to] (default: the current month) as
+     * CSV or XLSX. The file is streamed while the rows are read.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long workplaceId,
+            @RequestParam(defaultValue = "csv") String format) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        ShiftExportService.Format fmt;
+        try {
+            fmt = ShiftExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        YearMonth thisMonth = YearMonth.now();
+        LocalDate start = from != null ? from : thisMonth.atDay(1);
+        LocalDate end = to != null ? to : thisMonth.atEndOfMonth();
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String userId = principal.getName();
+
+        String filename = "shifts-" + start + "-" + end + "." + fmt.name().toLowerCase(Locale.ROOT);
+        StreamingResponseBody body = out -> shiftExportService.export(userId, workplaceId, start, end, fmt, out);
+        return ResponseEntity.ok()
+                .contentType(fmt == ShiftExportService.Format.XLSX ? XLSX : CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
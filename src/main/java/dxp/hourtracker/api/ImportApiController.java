@@ -0,0 +1,64 @@
+package dxp.hourtracker.api;
+
+import dxp.hourtracker.service.ShiftImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+public class ImportApiController {
+
+    private final ShiftImportService shiftImportService;
+
+    /**
+     * Accepts a CSV of shifts (date, start, end, shift type, optional
+     * workplace/overtime/tip columns) and starts a background import. Poll
+     * GET /api/import/{jobId} for progress.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> start(@AuthenticationPrincipal OAuth2User principal,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long workplaceId) throws IOException {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "The file is empty"));
+        }
+        // The upload is gone once this request ends, the job reads its own copy
+        Path copy = Files.createTempFile("shift-import-", ".csv");
+        file.transferTo(copy);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(shiftImportService.start(principal.getName(), copy, workplaceId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ShiftImportService.Progress> progress(@AuthenticationPrincipal OAuth2User principal,
+            @PathVariable String jobId) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.of(shiftImportService.progress(principal.getName(), jobId));
+    }
+}
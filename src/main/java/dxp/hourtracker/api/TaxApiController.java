@@ -0,0 +1,156 @@
+package dxp.hourtracker.api;
+
+import dxp.hourtracker.service.AnnualTaxDto;
+import dxp.hourtracker.service.IsraeliTaxCalculatorService;
+import dxp.hourtracker.service.NetSalaryBreakdown;
+import dxp.hourtracker.service.RateLookupService;
+import dxp.hourtracker.service.TaxProfile;
+import dxp.hourtracker.shift.MonthlyTotals;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.user.UserSettings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tax")
+@RequiredArgsConstructor
+public class TaxApiController {
+
+    private final ShiftRollupRepository shiftRollupRepository;
+    private final IsraeliTaxCalculatorService taxCalculator;
+    private final RateLookupService rateLookupService;
+
+    /**
+     * Month-by-month net salary for a year plus the annual tax equalization
+     * (tax on the whole year's income vs. what was withheld month by month).
+     *
+     * Monthly gross comes from the rollup in a single grouped query. For the
+     * current year, the current and later months are projected (see
+     * {@link #projectRestOfYear}) and flagged as such where the projection is
+     * above what's already recorded. Year-to-date figures are actual.
+     */
+    @GetMapping("/annual")
+    public AnnualTaxDto annual(@AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Long workplaceId) {
+        if (principal == null) {
+            throw new IllegalStateException("User must be authenticated");
+        }
+        String userId = principal.getName();
+        LocalDate today = LocalDate.now();
+        YearMonth thisMonth = YearMonth.from(today);
+        int y = year != null ? year : thisMonth.getYear();
+        UserSettings settings = rateLookupService.findSettings(userId).orElse(new UserSettings());
+
+        // --- Actual monthly totals (one query) ---
+        double[] gross = new double[12];
+        double[] hours = new double[12];
+        double[] tips = new double[12];
+        for (MonthlyTotals totals : shiftRollupRepository.sumMonthlyTotals(userId, workplaceId,
+                LocalDate.of(y, 1, 1), LocalDate.of(y, 12, 31))) {
+            int m = YearMonth.parse(totals.getMonth()).getMonthValue() - 1;
+            gross[m] = totals.getSalary() != null ? totals.getSalary() : 0.0;
+            hours[m] = totals.getHours() != null ? totals.getHours() : 0.0;
+            tips[m] = totals.getTips() != null ? totals.getTips() : 0.0;
+        }
+
+        // --- Projection for the rest of the current year ---
+        int elapsedMonths = y < thisMonth.getYear() ? 12 : y > thisMonth.getYear() ? 0 : thisMonth.getMonthValue();
+        double[] actualGross = gross.clone();
+        double ytdGross = 0;
+        for (int m = 0; m < elapsedMonths; m++) {
+            ytdGross += actualGross[m];
+        }
+        boolean[] projected = y == thisMonth.getYear()
+                ? projectRestOfYear(gross, today)
+                : new boolean[12];
+
+        // --- Monthly tax, each month with the credit points it was entitled to ---
+        List<AnnualTaxDto.Month> months = new ArrayList<>(12);
+        double annualGross = 0;
+        double annualCreditPoints = 0;
+        double withheldIncomeTax = 0;
+        double ytdNet = 0;
+        double ytdIncomeTax = 0;
+        for (int m = 0; m < 12; m++) {
+            YearMonth month = Year.of(y).atMonth(m + 1);
+            TaxProfile profile = TaxProfile.from(settings, month.atEndOfMonth());
+            NetSalaryBreakdown breakdown = taxCalculator.calculateNetSalary(gross[m], profile);
+
+            annualGross += gross[m];
+            annualCreditPoints += breakdown.creditPoints();
+            withheldIncomeTax += breakdown.incomeTaxDeduction();
+            if (m < elapsedMonths) {
+                // The current month counts with what's been earned so far
+                NetSalaryBreakdown actual = projected[m]
+                        ? taxCalculator.calculateNetSalary(actualGross[m], profile)
+                        : breakdown;
+                ytdNet += actual.netSalary();
+                ytdIncomeTax += actual.incomeTaxDeduction();
+            }
+
+            months.add(new AnnualTaxDto.Month(month.toString(), hours[m], tips[m], projected[m], breakdown));
+        }
+
+        boolean paysTax = settings.getPaysTax() != null ? settings.getPaysTax() : true;
+        double annualIncomeTax = paysTax ? taxCalculator.calculateAnnualIncomeTax(annualGross, annualCreditPoints)
+                : 0.0;
+
+        return new AnnualTaxDto(y, months,
+                new AnnualTaxDto.YearToDate(elapsedMonths, round(ytdGross), round(ytdIncomeTax), round(ytdNet)),
+                // Equalization: positive is a refund due at year end, negative is tax still owed
+                new AnnualTaxDto.Annual(round(annualGross), annualCreditPoints, round(withheldIncomeTax),
+                        annualIncomeTax, round(withheldIncomeTax - annualIncomeTax)));
+    }
+
+    /**
+     * Fills in the current and later months of {@code today}'s year in place,
+     * at the average gross of the completed months since the first one with
+     * earnings. Before there is such a month, the current month's gross so far
+     * is prorated to the whole month. A month keeps its recorded gross (shifts
+     * already worked or scheduled) when that's higher.
+     *
+     * @return which months were raised to the projection
+     */
+    static boolean[] projectRestOfYear(double[] gross, LocalDate today) {
+        int current = today.getMonthValue() - 1;
+        int first = 0;
+        while (first < current && gross[first] == 0) {
+            first++;
+        }
+        double monthlyGross;
+        if (first < current) {
+            double completedGross = 0;
+            for (int m = first; m < current; m++) {
+                completedGross += gross[m];
+            }
+            monthlyGross = completedGross / (current - first);
+        } else {
+            monthlyGross = gross[current] * today.lengthOfMonth() / today.getDayOfMonth();
+        }
+
+        boolean[] projected = new boolean[12];
+        for (int m = current; m < 12; m++) {
+            if (monthlyGross > gross[m]) {
+                gross[m] = monthlyGross;
+                projected[m] = true;
+            }
+        }
+        return projected;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -1,12 +1,23 @@
 package dxp.hourtracker.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dxp.hourtracker.entity.User;
 import dxp.hourtracker.repository.UserRepository;
+import dxp.hourtracker.service.DataVersionService;
+import dxp.hourtracker.service.HistoryPage;
+import dxp.hourtracker.service.RateLookupService;
+import dxp.hourtracker.service.ShiftDto;
+import dxp.hourtracker.service.ShiftHistoryService;
+import dxp.hourtracker.service.SummaryDto;
 import dxp.hourtracker.shift.Shift;
 import dxp.hourtracker.shift.ShiftRepository;
 import dxp.hourtracker.user.UserSettings;
 import dxp.hourtracker.user.UserSettingsRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,13 +26,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.YearMonth;
-import java.time.DayOfWeek;
-import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,10 +43,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserApiController {
 
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int HISTORY_MAX_PAGE_SIZE = 500;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final UserRepository userRepository;
     private final UserSettingsRepository userSettingsRepository;
     private final ShiftRepository shiftRepository;
-    private final dxp.hourtracker.service.IsraeliTaxCalculatorService taxCalculator;
+    private final dxp.hourtracker.service.SummaryService summaryService;
+    private final ShiftHistoryService shiftHistoryService;
+    private final RateLookupService rateLookupService;
+    private final dxp.hourtracker.service.ShiftTypeRegistry shiftTypeRegistry;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/me")
     public Map<String, Object> me(@AuthenticationPrincipal OAuth2User principal) {
@@ -83,7 +104,10 @@ public class UserApiController {
                     s.setOvertimeHourlyRate(51.0 * 1.25);
                     s.setShabatHourlyRate(51.0 * 1.50);
                     s.setPremiumExpiresAt(LocalDateTime.now().plusDays(7));
-                    return userSettingsRepository.save(s);
+                    UserSettings saved = userSettingsRepository.save(s);
+                    rateLookupService.evictSettings(externalId);
+                    dataVersionService.bump(externalId);
+                    return saved;
                 });
 
         response.put("isPremium", settings.getIsPremium());
@@ -95,178 +119,23 @@ public class UserApiController {
     }
 
     @GetMapping("/summary")
-    public Map<String, Object> summary(@AuthenticationPrincipal OAuth2User principal,
-            @RequestParam(required = false) Long workplaceId) { // Added param
-        try {
-            Map<String, Object> response = new HashMap<>();
-            // ... (omitted initial null check for brevity if strictly needed, but better to
-            // keep context) ...
-            if (principal == null) {
-                // ... return empty ...
-                response.put("monthHours", 0);
-                // ...
-                return response;
-            }
-
-            String userId = principal.getName();
-
-            // ... (settings fetch omitted, it's fine) ...
-            UserSettings settings = userSettingsRepository.findByUserId(userId).orElse(new UserSettings());
-
-            // --- Monthly Calculation ---
-            YearMonth thisMonth = YearMonth.now();
-            LocalDate startOfMonthDate = thisMonth.atDay(1);
-            LocalDate endOfMonthDate = thisMonth.atEndOfMonth();
-            // ... (boundary logic kept same, implicitly) ...
-            LocalDateTime tempBoundaryMonth = LocalDateTime.of(startOfMonthDate, LocalTime.of(6, 29));
-            if (LocalDateTime.now().isBefore(tempBoundaryMonth)) {
-                tempBoundaryMonth = tempBoundaryMonth.minusMonths(1);
-            }
-            final LocalDateTime effectiveBoundaryMonth = tempBoundaryMonth;
-
-            // Fetch roughly by date range first
-            List<Shift> monthShiftsCandidates;
-            if (workplaceId != null) {
-                monthShiftsCandidates = shiftRepository.findByUserIdAndWorkplaceIdAndDateBetweenOrderByDateDesc(
-                        userId, workplaceId, startOfMonthDate.minusDays(1), endOfMonthDate);
-            } else {
-                monthShiftsCandidates = shiftRepository.findByUserIdAndDateBetweenOrderByDateDesc(
-                        userId, startOfMonthDate.minusDays(1), endOfMonthDate);
-            }
-
-            // Re-fetch strictly
-            List<Shift> monthShifts;
-            if (workplaceId != null) {
-                monthShifts = shiftRepository.findByUserIdAndWorkplaceIdAndDateBetweenOrderByDateDesc(
-                        userId, workplaceId, startOfMonthDate, endOfMonthDate);
-            } else {
-                monthShifts = shiftRepository.findByUserIdAndDateBetweenOrderByDateDesc(
-                        userId, startOfMonthDate, endOfMonthDate);
-            }
-
-            double monthHours = monthShifts.stream()
-                    .filter(s -> {
-                        LocalDateTime shiftStart = LocalDateTime.of(s.getDate(),
-                                s.getStartTime() != null ? s.getStartTime() : LocalTime.MIN);
-                        return !shiftStart.isBefore(effectiveBoundaryMonth);
-                    })
-                    .mapToDouble(s -> (s.getHours() != null ? s.getHours() : 0.0))
-                    .sum();
-
-            double expectedSalary = monthShifts.stream()
-                    .filter(s -> {
-                        LocalDateTime shiftStart = LocalDateTime.of(s.getDate(),
-                                s.getStartTime() != null ? s.getStartTime() : LocalTime.MIN);
-                        return !shiftStart.isBefore(effectiveBoundaryMonth);
-                    })
-                    .mapToDouble(s -> (s.getSalary() != null ? s.getSalary() : 0.0))
-                    .sum();
-
-            double totalTips = monthShifts.stream()
-                    .filter(s -> {
-                        LocalDateTime shiftStart = LocalDateTime.of(s.getDate(),
-                                s.getStartTime() != null ? s.getStartTime() : LocalTime.MIN);
-                        return !shiftStart.isBefore(effectiveBoundaryMonth);
-                    })
-                    .mapToDouble(s -> (s.getTipAmount() != null ? s.getTipAmount() : 0.0))
-                    .sum();
-
-            Double hourlyRate = settings.getHourlyRate();
-
-            // --- Weekly Calculation (Start from most recent Sunday at 06:29) ---
-            LocalDate today = LocalDate.now();
-            // Find most recent Sunday (or today if today is Sunday)
-            LocalDate previousSunday = today
-                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
-            LocalDateTime tempBoundaryWeek = LocalDateTime.of(previousSunday, LocalTime.of(6, 29));
-            if (LocalDateTime.now().isBefore(tempBoundaryWeek)) {
-                tempBoundaryWeek = tempBoundaryWeek.minusWeeks(1);
-            }
-            final LocalDateTime effectiveBoundaryWeek = tempBoundaryWeek;
-
-            List<Shift> weekShifts;
-            if (workplaceId != null) {
-                weekShifts = shiftRepository.findByUserIdAndWorkplaceIdAndDateBetweenOrderByDateDesc(
-                        userId, workplaceId, previousSunday, today);
-            } else {
-                weekShifts = shiftRepository.findByUserIdAndDateBetweenOrderByDateDesc(
-                        userId, previousSunday, today);
-            }
-
-            // ... (week calculation stream kept same) ...
-            double weekHours = weekShifts.stream()
-                    .filter(s -> {
-                        LocalDateTime shiftStart = LocalDateTime.of(s.getDate(),
-                                s.getStartTime() != null ? s.getStartTime() : LocalTime.MIN);
-                        return !shiftStart.isBefore(effectiveBoundaryWeek);
-                    })
-                    .mapToDouble(s -> (s.getHours() != null ? s.getHours() : 0.0))
-                    .sum();
-
-            // ... (salary calc same) ...
-
-            // ... (tips calc same) ...
-
-            // Fix Recent Shifts
-            List<Shift> recentShiftsRaw;
-            if (workplaceId != null) {
-                recentShiftsRaw = shiftRepository.findTop5ByUserIdAndWorkplaceIdOrderByDateDesc(userId, workplaceId);
-            } else {
-                recentShiftsRaw = shiftRepository.findTop5ByUserIdOrderByDateDesc(userId);
-            }
-
-            List<Map<String, Object>> recent = recentShiftsRaw
-                    .stream()
-                    .map(s -> {
-                        // ... (mapping same) ...
-                        Map<String, Object> m = new HashMap<>();
-                        m.put("id", s.getId());
-                        m.put("date", s.getDate());
-                        m.put("startTime", s.getStartTime());
-                        m.put("endTime", s.getEndTime());
-                        m.put("shiftType", s.getShiftType());
-                        m.put("hours", s.getHours());
-                        m.put("salary", s.getSalary());
-                        m.put("tipAmount", s.getTipAmount());
-                        m.put("tip", s.getTipAmount());
-                        m.put("overtimeHours", s.getOvertimeHours());
-                        m.put("overtimeSalary", s.getOvertimeSalary());
-                        return m;
-                    })
-                    .toList();
-
-            response.put("monthHours", monthHours);
-            response.put("weekHours", weekHours);
-            response.put("hourlyRate", hourlyRate);
-            response.put("expectedMonthSalary", expectedSalary);
-            response.put("recentShifts", recent);
-            response.put("totalTips", totalTips);
-
-            // --- Net Salary Breakdown (Israeli Tax Calculator 2026) ---
-            try {
-                Map<String, Object> netBreakdown = taxCalculator.calculateNetSalary(
-                        expectedSalary,
-                        settings.getPaysTax() != null ? settings.getPaysTax() : true,
-                        settings.getPensionEnabled() != null ? settings.getPensionEnabled() : true,
-                        settings.getStudyFundEnabled() != null ? settings.getStudyFundEnabled() : false,
-                        settings.getIsFemale() != null ? settings.getIsFemale() : false,
-                        settings.getIsExSoldier() != null ? settings.getIsExSoldier() : false,
-                        settings.getDischargeDate());
-                response.put("netSalaryBreakdown", netBreakdown);
-            } catch (Exception e) {
-                // Don't let tax calculation crash the summary
-                response.put("netSalaryBreakdown", null);
-            }
-
-            return response;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw e;
+    public SummaryDto summary(@AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) Long workplaceId, // Added param
+            WebRequest webRequest) {
+        if (principal == null) {
+            return SummaryDto.EMPTY;
         }
+        // Month/week windows and the tax profile move with the date, so it's part of the tag
+        if (dataVersionService.checkNotModified(webRequest,
+                dataVersionService.etag(principal.getName(), LocalDate.now(), workplaceId))) {
+            return null;
+        }
+        // Settings, totals and recent shifts are fetched concurrently
+        return summaryService.summarize(principal.getName(), workplaceId);
     }
 
     @GetMapping("/shifts/upcoming")
-    public List<Map<String, Object>> upcoming(@AuthenticationPrincipal OAuth2User principal,
+    public List<ShiftDto> upcoming(@AuthenticationPrincipal OAuth2User principal,
             @RequestParam(required = false) Long workplaceId) {
         if (principal == null)
             return List.of();
@@ -284,13 +153,7 @@ public class UserApiController {
         }
 
         return shifts.stream()
-                .map(s -> {
-                    Map<String, Object> m = new HashMap<>();
-                    m.put("id", s.getId());
-                    m.put("date", s.getDate());
-                    m.put("shiftType", s.getShiftType());
-                    return m;
-                })
+                .map(this::toHistoryItem)
                 .toList();
     }
 
@@ -326,7 +189,10 @@ public class UserApiController {
                     s.setOvertimeHourlyRate(defaultBase * 1.25);
                     s.setShabatHourlyRate(defaultBase * 1.50);
                     s.setPremiumExpiresAt(LocalDateTime.now().plusDays(7));
-                    return userSettingsRepository.save(s);
+                    UserSettings saved = userSettingsRepository.save(s);
+                    rateLookupService.evictSettings(userId);
+                    dataVersionService.bump(userId);
+                    return saved;
                 });
 
         // Also handle case where settings exist but are 0.0 (legacy) - fallback to
@@ -449,6 +315,8 @@ public class UserApiController {
         }
 
         userSettingsRepository.save(settings);
+        rateLookupService.evictSettings(userId);
+        dataVersionService.bump(userId);
 
         response.put("hourlyRate", settings.getHourlyRate());
         response.put("overtimeHourlyRate", settings.getOvertimeHourlyRate());
@@ -497,7 +365,10 @@ public class UserApiController {
                     UserSettings s = new UserSettings();
                     s.setUserId(userId);
                     s.setHourlyRate(51.0);
-                    return userSettingsRepository.save(s);
+                    UserSettings saved = userSettingsRepository.save(s);
+                    rateLookupService.evictSettings(userId);
+                    dataVersionService.bump(userId);
+                    return saved;
                 });
 
         java.time.LocalDateTime currentExpiry = settings.getPremiumExpiresAt();
@@ -510,6 +381,8 @@ public class UserApiController {
         }
 
         userSettingsRepository.save(settings);
+        rateLookupService.evictSettings(userId);
+        dataVersionService.bump(userId);
 
         response.put("isPremium", settings.getIsPremium());
         response.put("premiumExpiresAt", settings.getPremiumExpiresAt());
@@ -548,19 +421,26 @@ public class UserApiController {
     }
 
     @GetMapping("/history")
-    public Map<String, Object> history(
+    public HistoryPage history(
             @AuthenticationPrincipal OAuth2User principal,
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) Integer month,
-            @RequestParam(required = false) Long workplaceId) { // Added param
-        Map<String, Object> response = new HashMap<>();
+            @RequestParam(required = false) Long workplaceId, // Added param
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
         if (principal == null) {
-            response.put("items", List.of());
-            return response;
+            return HistoryPage.EMPTY;
         }
         String userId = principal.getName();
+        // Query params are already part of the cache key on the client, the stamp covers the data
+        if (dataVersionService.checkNotModified(webRequest, dataVersionService.etag(userId))) {
+            return null;
+        }
 
         List<Shift> shifts;
+        HistoryPage.Cursor nextCursor = null;
         if (year != null && month != null) {
             YearMonth ym = YearMonth.of(year, month);
             LocalDate start = ym.atDay(1);
@@ -572,31 +452,52 @@ public class UserApiController {
                 shifts = shiftRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, start, end);
             }
         } else {
-            if (workplaceId != null) {
-                shifts = shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(userId, workplaceId);
+            // Full history is paged by (date, id) so a long-tenured user never loads
+            // everything at once. Pass nextCursor back to get the following page.
+            int pageSize = limit != null ? Math.max(1, Math.min(limit, HISTORY_MAX_PAGE_SIZE)) : HISTORY_PAGE_SIZE;
+            PageRequest page = PageRequest.ofSize(pageSize);
+            if (cursorDate != null && cursorId != null) {
+                shifts = shiftRepository.findHistoryPageAfter(userId, workplaceId, cursorDate, cursorId, page);
             } else {
-                shifts = shiftRepository.findAllByUserIdOrderByDateDesc(userId);
+                shifts = shiftRepository.findHistoryFirstPage(userId, workplaceId, page);
+            }
+            if (shifts.size() == pageSize) {
+                Shift last = shifts.get(shifts.size() - 1);
+                nextCursor = new HistoryPage.Cursor(last.getDate(), last.getId());
             }
         }
 
-        List<Map<String, Object>> items = shifts.stream()
-                .map(s -> {
-                    Map<String, Object> m = new HashMap<>();
-                    m.put("id", s.getId());
-                    m.put("date", s.getDate());
-                    m.put("startTime", s.getStartTime());
-                    m.put("endTime", s.getEndTime());
-                    m.put("shiftType", s.getShiftType());
-                    m.put("hours", s.getHours());
-                    m.put("salary", s.getSalary());
-                    m.put("overtimeHours", s.getOvertimeHours());
-                    m.put("overtimeSalary", s.getOvertimeSalary());
-                    m.put("tipAmount", s.getTipAmount());
-                    return m;
-                })
+        List<ShiftDto> items = shifts.stream()
+                .map(this::toHistoryItem)
                 .toList();
+        return new HistoryPage(items, nextCursor);
+    }
 
-        response.put("items", items);
-        return response;
+    /**
+     * Streams the full history as NDJSON (one shift per line) straight from the
+     * database, so memory use doesn't depend on how many shifts the user has.
+     */
+    @GetMapping(value = "/history/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> historyStream(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) Long workplaceId) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        String userId = principal.getName();
+
+        StreamingResponseBody body = out -> shiftHistoryService.forEachShift(userId, workplaceId, shift -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(toHistoryItem(shift)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private ShiftDto toHistoryItem(Shift s) {
+        return ShiftDto.of(s, shiftTypeRegistry.displayName(s));
     }
 }
@@ -0,0 +1,14 @@
+package dxp.hourtracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async. With spring.threads.virtual.enabled the auto-configured
+ * applicationTaskExecutor runs each task on a virtual thread, capped by
+ * spring.task.execution.simple.concurrency-limit.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,33 @@
+package dxp.hourtracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * The share of the connection pool set aside for background jobs (CSV imports,
+ * repricing), which run outside {@link DbConcurrencyFilter}. A job takes as
+ * many slots as it holds connections at once for its whole run, and waits on
+ * its own virtual thread while they're taken, so jobs can never eat into the
+ * connections the filter admits requests against.
+ */
+@Component
+public class BackgroundDbSlots {
+
+    private final Semaphore slots;
+
+    public BackgroundDbSlots(@Value("${hourtracker.db.background-connections:4}") int connections) {
+        this.slots = new Semaphore(connections, true);
+    }
+
+    /** Runs the job once the given number of connections are free for it. */
+    public void run(int connections, Runnable job) {
+        slots.acquireUninterruptibly(connections);
+        try {
+            job.run();
+        } finally {
+            slots.release(connections);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dxp.hourtracker.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Caffeine-backed caches configured under spring.cache.* in
+ * application.properties (bounded size + TTL, with hit/miss stats recorded).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String WORKPLACES = "workplaces";
+    public static final String USER_SETTINGS = "userSettings";
+    public static final String WORKPLACE_RATES = "workplaceRates";
+}
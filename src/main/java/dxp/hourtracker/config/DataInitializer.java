@@ -13,6 +13,7 @@ import java.time.LocalTime;
 public class DataInitializer implements CommandLineRunner {
 
         private final ShiftTypeRepository shiftTypeRepository;
+        private final dxp.hourtracker.service.ShiftTypeRegistry shiftTypeRegistry;
 
         @Override
         public void run(String... args) {
@@ -43,6 +44,9 @@ public class DataInitializer implements CommandLineRunner {
                 // 4PM: 16:00 - 00:30 (8.5h) -> 8h Pay (30m deduction)
                 createIfMissing("4PM_UNTIL_12", "16:00 - 00:30",
                                 LocalTime.of(16, 0), LocalTime.of(0, 30), 8.0, 30);
+
+                // System defaults may have changed under the registry
+                shiftTypeRegistry.invalidate(null);
         }
 
         private void createIfMissing(
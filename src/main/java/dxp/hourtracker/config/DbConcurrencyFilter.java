@@ -0,0 +1,137 @@
+package dxp.hourtracker.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many /api requests run at once. With virtual threads Tomcat no
+ * longer limits concurrency through its thread pool, so without this every
+ * request would go straight for a Hikari connection and time out there under
+ * load. Requests wait here instead and get a 503 (Retry-After: 1) if no slot
+ * frees up in time.
+ *
+ * The limit is derived from the pool: the connections left after
+ * {@link BackgroundDbSlots} takes its share, divided by the most one request
+ * holds at once (/api/summary runs three reads concurrently; creating shifts
+ * holds its own connection plus one for the id generator). Admitted requests
+ * then never wait on Hikari.
+ *
+ * Runs after Spring Security, so unauthenticated requests don't take a slot.
+ * Async requests (StreamingResponseBody downloads) keep their slot until the
+ * response completes, not just until the controller returns.
+ */
+@Component
+@Slf4j
+public class DbConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long admissionTimeoutMs;
+
+    @Autowired
+    public DbConcurrencyFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${hourtracker.db.background-connections:4}") int backgroundConnections,
+            @Value("${hourtracker.db.connections-per-request:3}") int connectionsPerRequest,
+            @Value("${hourtracker.db.admission-timeout-ms:2000}") long admissionTimeoutMs) {
+        this(maxConcurrentRequests(poolSize, backgroundConnections, connectionsPerRequest), admissionTimeoutMs);
+        log.info("Admitting at most {} /api requests at once ({} connections, {} for background jobs, {} per request)",
+                permits.availablePermits(), poolSize, backgroundConnections, connectionsPerRequest);
+    }
+
+    DbConcurrencyFilter(int maxConcurrentRequests, long admissionTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.admissionTimeoutMs = admissionTimeoutMs;
+    }
+
+    static int maxConcurrentRequests(int poolSize, int backgroundConnections, int connectionsPerRequest) {
+        int requestConnections = poolSize - backgroundConnections;
+        if (requestConnections < connectionsPerRequest) {
+            throw new IllegalStateException("spring.datasource.hikari.maximum-pool-size=" + poolSize
+                    + " leaves fewer than " + connectionsPerRequest + " connections for requests after "
+                    + backgroundConnections + " for background jobs");
+        }
+        return requestConnections / connectionsPerRequest;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            log.warn("Rejecting {} {}: no DB slot within {} ms", request.getMethod(), request.getRequestURI(),
+                    admissionTimeoutMs);
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        Permit permit = new Permit();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    /** One admitted request's slot, given back exactly once. */
+    private class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted on a dispatch: listeners have to register again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
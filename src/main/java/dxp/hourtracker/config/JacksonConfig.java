@@ -0,0 +1,19 @@
+package dxp.hourtracker.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Boot registers every Module bean on the MVC ObjectMapper. Blackbird swaps
+ * Jackson's reflective accessor calls for generated lambdas, which matters on
+ * the history endpoints that serialize hundreds of ShiftDto rows per request.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
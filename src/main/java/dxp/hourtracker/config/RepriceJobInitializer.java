@@ -0,0 +1,22 @@
+package dxp.hourtracker.config;
+
+import dxp.hourtracker.service.ShiftRepriceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resumes reprice jobs that were still running when the app last stopped.
+ * They continue from their last committed chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepriceJobInitializer implements CommandLineRunner {
+
+        private final ShiftRepriceService shiftRepriceService;
+
+        @Override
+        public void run(String... args) {
+                shiftRepriceService.resumeAll();
+        }
+}
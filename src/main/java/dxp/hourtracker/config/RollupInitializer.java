@@ -0,0 +1,30 @@
+package dxp.hourtracker.config;
+
+import dxp.hourtracker.service.ShiftRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the shift rollup table from the shifts table on startup and logs any
+ * drift it finds. It scans every user's shifts, so it's off unless
+ * {@code hourtracker.rollup.reconcile-on-startup} is set, to repair drift. The
+ * table is filled for existing shifts by migration V10.
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupInitializer implements CommandLineRunner {
+
+        private final ShiftRollupService shiftRollupService;
+
+        @Value("${hourtracker.rollup.reconcile-on-startup:false}")
+        private boolean reconcileOnStartup;
+
+        @Override
+        public void run(String... args) {
+                if (reconcileOnStartup) {
+                        shiftRollupService.reconcileAll();
+                }
+        }
+}
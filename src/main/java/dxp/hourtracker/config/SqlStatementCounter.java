@@ -0,0 +1,52 @@
+package dxp.hourtracker.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of the current
+ * request (see {@link SqlCountFilter}). Work handed to another thread is only
+ * counted if its executor decorates tasks with {@link #propagate}, as
+ * SummaryService does for its fan-out.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    /** Starts counting on this thread and returns the counter. */
+    static AtomicInteger begin() {
+        AtomicInteger count = new AtomicInteger();
+        CURRENT.set(count);
+        return count;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Makes the task count towards the submitting thread's counter. Usable as a TaskDecorator. */
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger count = CURRENT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(count);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = CURRENT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+}
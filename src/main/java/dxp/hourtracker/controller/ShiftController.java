@@ -1,15 +1,18 @@
 package dxp.hourtracker.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import dxp.hourtracker.entity.ShiftType;
-import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.service.ShiftDto;
 import dxp.hourtracker.service.ShiftService;
 import dxp.hourtracker.shift.Shift;
-import dxp.hourtracker.shift.ShiftRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,24 +22,26 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ShiftController {
 
-    private final ShiftTypeRepository shiftTypeRepository;
+    private final dxp.hourtracker.service.ShiftTypeRegistry shiftTypeRegistry;
     private final ShiftService shiftService; // Inject Service
-    private final ShiftRepository shiftRepository;
+    private final dxp.hourtracker.service.DataVersionService dataVersionService;
 
     @GetMapping("/shift-types")
-    public List<ShiftType> getShiftTypes(@RequestParam(required = false) Long workplaceId) {
-        if (workplaceId != null) {
-            return shiftTypeRepository.findAllByWorkplaceIdOrderBySortOrderAsc(workplaceId);
+    public List<ShiftType> getShiftTypes(@AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) Long workplaceId,
+            WebRequest webRequest) {
+        // Types only change when a template is assigned (user stamp) or on restart (system defaults)
+        String etag = principal != null ? dataVersionService.etag(principal.getName())
+                : dataVersionService.bootEtag("shift-types");
+        if (dataVersionService.checkNotModified(webRequest, etag)) {
+            return null;
         }
-        // Fallback for legacy/system defaults
-        // return shiftTypeRepository.findAllByWorkplaceIdIsNullOrderBySortOrderAsc();
-        // OR return all if strictly needed debugging, but we want separation.
-        // Let's return System Defaults (null workplaceId)
-        return shiftTypeRepository.findAllByWorkplaceIdIsNullOrderBySortOrderAsc();
+        // null workplaceId -> System Defaults (legacy)
+        return shiftTypeRegistry.getAll(workplaceId);
     }
 
     @PostMapping("/shifts")
-    public Map<String, Object> createShift(
+    public ShiftDto createShift(
             @AuthenticationPrincipal OAuth2User principal,
             @RequestBody Map<String, Object> body) {
         if (principal == null) {
@@ -49,8 +54,46 @@ public class ShiftController {
         return toShiftDto(saved);
     }
 
+    /**
+     * Creates a whole schedule in one request. Body is a JSON array of
+     * /shifts payloads; the response reports each item by its index. More
+     * than {@link ShiftService#MAX_BATCH_SIZE} payloads is a 400.
+     */
+    @PostMapping("/shifts/batch")
+    public ResponseEntity<BatchResponse> createShifts(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestBody List<Map<String, Object>> body) {
+        if (principal == null) {
+            throw new IllegalStateException("User must be authenticated to create shifts");
+        }
+        if (body.size() > ShiftService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ShiftService.BatchItemResult> results = shiftService.createShifts(principal.getName(), body);
+
+        int created = 0;
+        List<BatchItem> items = new ArrayList<>(results.size());
+        for (ShiftService.BatchItemResult result : results) {
+            if (result.shift() != null) {
+                items.add(new BatchItem(result.index(), true, toShiftDto(result.shift()), null));
+                created++;
+            } else {
+                items.add(new BatchItem(result.index(), false, null, result.error()));
+            }
+        }
+        return ResponseEntity.ok(new BatchResponse(created, results.size() - created, items));
+    }
+
+    /** One entry of a batch response: the created shift, or why the payload at index was rejected. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchItem(int index, boolean ok, ShiftDto shift, String error) {
+    }
+
+    public record BatchResponse(int created, int failed, List<BatchItem> results) {
+    }
+
     @PutMapping("/shifts/{id}")
-    public Map<String, Object> updateShift(
+    public ShiftDto updateShift(
             @AuthenticationPrincipal OAuth2User principal,
             @PathVariable Long id,
             @RequestBody Map<String, Object> body) {
@@ -69,18 +112,12 @@ public class ShiftController {
         if (principal == null) {
             throw new IllegalStateException("User must be authenticated");
         }
-        // Basic ownership check should ideally be in service or here
         String userId = principal.getName();
-        Shift existing = shiftRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
-        if (!existing.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Unauthorized");
-        }
-        shiftRepository.delete(existing);
+        shiftService.deleteShift(id, userId);
     }
 
     @PostMapping("/shifts/{id}/end")
-    public Map<String, Object> endShift(
+    public ShiftDto endShift(
             @AuthenticationPrincipal OAuth2User principal,
             @PathVariable Long id) {
         if (principal == null) {
@@ -91,20 +128,9 @@ public class ShiftController {
         return toShiftDto(ended);
     }
 
-    private Map<String, Object> toShiftDto(Shift saved) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", saved.getId());
-        response.put("date", saved.getDate());
-        response.put("shiftType", saved.getShiftType());
-        response.put("hours", saved.getHours());
-        response.put("salary", saved.getSalary());
-        response.put("overtimeHours", saved.getOvertimeHours());
-        response.put("overtimeSalary", saved.getOvertimeSalary());
-        response.put("tipAmount", saved.getTipAmount());
-        // For frontend "active" logic, we might need start/end time
-        response.put("startTime", saved.getStartTime());
-        response.put("endTime", saved.getEndTime());
-        return response;
+    private ShiftDto toShiftDto(Shift saved) {
+        // Start/end time included for the frontend "active" logic
+        return ShiftDto.of(saved, shiftTypeRegistry.displayName(saved));
     }
 
     private Map<String, Object> toDto(ShiftType type) {
@@ -126,18 +152,12 @@ public class ShiftController {
             throw new IllegalStateException("User must be authenticated to add a tip");
         }
         String userId = principal.getName();
-        Shift shift = shiftRepository.findById(shiftId)
-                .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
-        if (!shift.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Unauthorized: this shift does not belong to you");
-        }
         Object tipValueObj = body.get("tipAmount");
         if (!(tipValueObj instanceof Number)) {
             throw new IllegalArgumentException("tipAmount must be a numeric value");
         }
         double tipAmount = ((Number) tipValueObj).doubleValue();
-        shift.setTipAmount(tipAmount);
-        shiftRepository.save(shift);
+        Shift shift = shiftService.addTip(shiftId, userId, tipAmount);
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("id", shift.getId());
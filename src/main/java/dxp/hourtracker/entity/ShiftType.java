@@ -11,6 +11,8 @@ import java.time.LocalTime;
 @Entity
 @Table(name = "shift_types", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "code", "workplace_id" })
+}, indexes = {
+        @Index(name = "idx_shift_types_workplace_sort", columnList = "workplace_id, sort_order")
 })
 @Data
 @NoArgsConstructor
@@ -18,8 +20,14 @@ import java.time.LocalTime;
 @Builder
 public class ShiftType {
 
+    /**
+     * Pooled table generator like Shift#id, so a template's types are inserted
+     * in one batch. It also fetches new blocks on a second connection.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "shift_type_ids")
+    @TableGenerator(name = "shift_type_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "shift_types", allocationSize = 50)
     private Long id;
 
     /**
@@ -2,6 +2,9 @@ package dxp.hourtracker.repository;
 
 import dxp.hourtracker.entity.ShiftType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,4 +30,8 @@ public interface ShiftTypeRepository extends JpaRepository<ShiftType, Long> {
 
     List<ShiftType> findAllByOrderBySortOrderAsc();
 
+    @Modifying
+    @Query("DELETE FROM ShiftType t WHERE t.workplaceId = :workplaceId")
+    void deleteAllForWorkplace(@Param("workplaceId") Long workplaceId);
+
 }
@@ -0,0 +1,37 @@
+package dxp.hourtracker.service;
+
+import java.util.List;
+
+/** The /api/tax/annual report: twelve months, the year so far, and the year-end equalization. */
+public record AnnualTaxDto(
+        int year,
+        List<Month> months,
+        YearToDate yearToDate,
+        Annual annual) {
+
+    /** One calendar month. When projected, the breakdown is for the projected gross. */
+    public record Month(
+            String month,
+            double hours,
+            double tips,
+            boolean projected,
+            NetSalaryBreakdown netSalaryBreakdown) {
+    }
+
+    /** Actual figures of the elapsed months. */
+    public record YearToDate(
+            int months,
+            double grossSalary,
+            double incomeTaxDeduction,
+            double netSalary) {
+    }
+
+    /** equalization is positive for a refund due at year end, negative for tax still owed. */
+    public record Annual(
+            double grossSalary,
+            double creditPoints,
+            double withheldIncomeTax,
+            double annualIncomeTax,
+            double equalization) {
+    }
+}
@@ -0,0 +1,98 @@
+package dxp.hourtracker.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: one record per {@link #next} call, quoted fields
+ * may contain commas, doubled quotes and line breaks. A leading UTF-8 BOM is
+ * skipped. Only the current record is held in memory.
+ */
+class CsvReader implements AutoCloseable {
+
+    private final Reader in;
+    private int peeked = -2; // -2: nothing peeked
+    private int line = 1;
+    private int recordLine;
+
+    CsvReader(Reader in) throws IOException {
+        this.in = in;
+        if (peek() == '\uFEFF') {
+            read();
+        }
+    }
+
+    /** 1-based line the last record returned by {@link #next} started on. */
+    int line() {
+        return recordLine;
+    }
+
+    /** The next record, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        while (peek() == '\r' || peek() == '\n') {
+            read();
+        }
+        if (peek() == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,97 @@
+package dxp.hourtracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user data version stamps, used as ETags for the endpoints the SPA polls.
+ *
+ * Anything that changes a user's shifts, settings or workplaces must call
+ * {@link #bump}. A request whose If-None-Match still matches the current stamp
+ * can then answer 304 without touching the database.
+ *
+ * Stamps live in memory only. The boot epoch is part of every ETag so a
+ * restart (which also re-runs DataInitializer) invalidates what clients hold.
+ * A user whose stamp was evicted gets a fresh one from the global sequence,
+ * which never matches an ETag handed out earlier.
+ */
+@Component
+public class DataVersionService {
+
+    private final long bootEpoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Cache<String, Long> stamps = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+
+    /** Current stamp of the user's data. */
+    public long current(String userId) {
+        return stamps.get(userId, key -> sequence.incrementAndGet());
+    }
+
+    /**
+     * Marks the user's data as changed. Inside a transaction the bump happens
+     * after completion, so a concurrent read can't cache the old rows under the
+     * new stamp.
+     */
+    public void bump(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stamps.put(userId, sequence.incrementAndGet());
+                }
+            });
+        } else {
+            stamps.put(userId, sequence.incrementAndGet());
+        }
+    }
+
+    /** Weak ETag for the user's data; parts are whatever else the response depends on (params, date). */
+    public String etag(String userId, Object... parts) {
+        StringBuilder sb = new StringBuilder("W/\"").append(Long.toString(bootEpoch, 36))
+                .append('-').append(Long.toString(current(userId), 36));
+        for (Object part : parts) {
+            sb.append('-').append(part);
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Sets the ETag and returns true when the client's copy is current; the
+     * handler then returns null and the client gets an empty 304.
+     *
+     * Also marks the response "private, no-cache": Spring Security's default
+     * no-store would keep the browser from holding on to the body at all.
+     */
+    public boolean checkNotModified(WebRequest request, String etag) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            }
+        }
+        return request.checkNotModified(etag);
+    }
+
+    /** ETag for data that only changes with a restart (templates, system shift types). */
+    public String bootEtag(Object... parts) {
+        StringBuilder sb = new StringBuilder("W/\"").append(Long.toString(bootEpoch, 36));
+        for (Object part : parts) {
+            sb.append('-').append(part);
+        }
+        return sb.append('"').toString();
+    }
+}
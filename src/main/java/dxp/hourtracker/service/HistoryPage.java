@@ -0,0 +1,17 @@
+package dxp.hourtracker.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A page of /api/history. nextCursor is null on the last page (and for
+ * month queries, which aren't paged); otherwise pass its fields back as
+ * query params to get the following page.
+ */
+public record HistoryPage(List<ShiftDto> items, Cursor nextCursor) {
+
+    public record Cursor(LocalDate cursorDate, Long cursorId) {
+    }
+
+    public static final HistoryPage EMPTY = new HistoryPage(List.of(), null);
+}
@@ -1,11 +1,13 @@
 package dxp.hourtracker.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Israeli Net Salary Calculator (2026 Edition).
@@ -17,6 +19,7 @@ import java.util.Map;
  * - Pension (6%) and Keren Hishtalmut (2.5%) deductions
  */
 @Component
+@Timed("hourtracker.tax.calculation")
 public class IsraeliTaxCalculatorService {
 
     // === 2026 Constants ===
@@ -28,7 +31,7 @@ public class IsraeliTaxCalculatorService {
 
     // Ex-soldier extra credit points (within 36 months of discharge)
     private static final double EX_SOLDIER_EXTRA_POINTS = 2.0; // Combat soldiers
-    private static final long SOLDIER_BENEFIT_MONTHS = 36;
+    static final long SOLDIER_BENEFIT_MONTHS = 36;
 
     // Bituach Leumi + Health Tax (Employee portion, 2026)
     private static final double BL_REDUCED_THRESHOLD = 7703.0; // 60% of average wage
@@ -49,6 +52,32 @@ public class IsraeliTaxCalculatorService {
             { Double.MAX_VALUE, 0.47 } // 47% above ₪46,690
     };
 
+    // Bracket table flattened for lookup: lower bound of each bracket, its rate, and
+    // the tax already owed on everything below that bound (prefix sum).
+    private static final double[] BRACKET_FLOORS = new double[TAX_BRACKETS.length];
+    private static final double[] BRACKET_RATES = new double[TAX_BRACKETS.length];
+    private static final double[] TAX_BELOW_FLOOR = new double[TAX_BRACKETS.length];
+
+    static {
+        double floor = 0;
+        double taxBelow = 0;
+        for (int i = 0; i < TAX_BRACKETS.length; i++) {
+            BRACKET_FLOORS[i] = floor;
+            BRACKET_RATES[i] = TAX_BRACKETS[i][1];
+            TAX_BELOW_FLOOR[i] = taxBelow;
+            taxBelow += (TAX_BRACKETS[i][0] - floor) * TAX_BRACKETS[i][1];
+            floor = TAX_BRACKETS[i][0];
+        }
+    }
+
+    private record MemoKey(long grossAgorot, TaxProfile profile) {
+    }
+
+    // Results per (gross in agorot, profile); the summary recomputes the same month over and over
+    private final Cache<MemoKey, NetSalaryBreakdown> memo = Caffeine.newBuilder()
+            .maximumSize(1_024)
+            .build();
+
     /**
      * Calculates a detailed net salary breakdown.
      *
@@ -59,9 +88,9 @@ public class IsraeliTaxCalculatorService {
      * @param isFemale           For credit point calculation.
      * @param isExSoldier        Whether user is an ex-soldier.
      * @param dischargeDate      Date of discharge (for 36-month window).
-     * @return A map with all breakdown fields.
+     * @return The breakdown as of today.
      */
-    public Map<String, Object> calculateNetSalary(
+    public NetSalaryBreakdown calculateNetSalary(
             double grossMonthlySalary,
             boolean paysTax,
             boolean pensionEnabled,
@@ -69,84 +98,96 @@ public class IsraeliTaxCalculatorService {
             boolean isFemale,
             boolean isExSoldier,
             LocalDate dischargeDate) {
+        return calculateNetSalary(grossMonthlySalary, TaxProfile.of(paysTax, pensionEnabled, studyFundEnabled,
+                isFemale, isExSoldier, dischargeDate, LocalDate.now()));
+    }
 
-        Map<String, Object> breakdown = new LinkedHashMap<>();
-        breakdown.put("grossSalary", round(grossMonthlySalary));
+    /** Calculates a detailed net salary breakdown for a resolved profile (memoized). */
+    public NetSalaryBreakdown calculateNetSalary(double grossMonthlySalary, TaxProfile profile) {
+        long grossAgorot = Math.round(grossMonthlySalary * 100.0);
+        return memo.get(new MemoKey(grossAgorot, profile), key -> compute(grossAgorot / 100.0, profile));
+    }
 
+    /**
+     * Batch version, e.g. twelve months of a year for one user. Entry i of the
+     * result belongs to grosses[i].
+     */
+    public NetSalaryBreakdown[] calculateNetSalaries(double[] grosses, TaxProfile profile) {
+        NetSalaryBreakdown[] results = new NetSalaryBreakdown[grosses.length];
+        for (int i = 0; i < grosses.length; i++) {
+            results[i] = calculateNetSalary(grosses[i], profile);
+        }
+        return results;
+    }
+
+    private NetSalaryBreakdown compute(double grossMonthlySalary, TaxProfile profile) {
         double totalDeductions = 0;
 
         // 1. Pension
-        double pensionDeduction = 0;
-        if (pensionEnabled) {
-            pensionDeduction = grossMonthlySalary * PENSION_RATE;
-            totalDeductions += pensionDeduction;
-        }
-        breakdown.put("pensionDeduction", round(pensionDeduction));
+        double pensionDeduction = profile.pensionEnabled() ? grossMonthlySalary * PENSION_RATE : 0;
+        totalDeductions += pensionDeduction;
 
         // 2. Study Fund (Keren Hishtalmut)
-        double studyFundDeduction = 0;
-        if (studyFundEnabled) {
-            studyFundDeduction = grossMonthlySalary * STUDY_FUND_RATE;
-            totalDeductions += studyFundDeduction;
-        }
-        breakdown.put("studyFundDeduction", round(studyFundDeduction));
+        double studyFundDeduction = profile.studyFundEnabled() ? grossMonthlySalary * STUDY_FUND_RATE : 0;
+        totalDeductions += studyFundDeduction;
 
         // 3. Bituach Leumi + Health Tax
         double bituachLeumi = calculateBituachLeumi(grossMonthlySalary);
         totalDeductions += bituachLeumi;
-        breakdown.put("bituachLeumiDeduction", round(bituachLeumi));
 
         // 4. Income Tax
         double incomeTax = 0;
-        if (paysTax) {
+        double creditPoints = 0;
+        double creditDiscount = 0;
+        if (profile.paysTax()) {
             // Calculate gross tax from brackets
             double grossTax = calculateIncomeTax(grossMonthlySalary);
 
             // Calculate credit points discount
-            double creditPoints = calculateCreditPoints(isFemale, isExSoldier, dischargeDate);
-            double creditDiscount = creditPoints * CREDIT_POINT_VALUE;
+            creditPoints = calculateCreditPoints(profile);
+            creditDiscount = creditPoints * CREDIT_POINT_VALUE;
 
             // Net tax = gross tax minus credit points (never negative)
             incomeTax = Math.max(0, grossTax - creditDiscount);
-
-            breakdown.put("creditPoints", creditPoints);
-            breakdown.put("creditDiscount", round(creditDiscount));
-        } else {
-            breakdown.put("creditPoints", 0.0);
-            breakdown.put("creditDiscount", 0.0);
         }
         totalDeductions += incomeTax;
-        breakdown.put("incomeTaxDeduction", round(incomeTax));
 
         // Final
         double netSalary = grossMonthlySalary - totalDeductions;
-        breakdown.put("totalDeductions", round(totalDeductions));
-        breakdown.put("netSalary", round(netSalary));
-
-        return breakdown;
+        return new NetSalaryBreakdown(
+                round(grossMonthlySalary),
+                round(pensionDeduction),
+                round(studyFundDeduction),
+                round(bituachLeumi),
+                creditPoints,
+                round(creditDiscount),
+                round(incomeTax),
+                round(totalDeductions),
+                round(netSalary));
     }
 
-    /** Calculates income tax using 2026 progressive brackets. */
-    private double calculateIncomeTax(double grossSalary) {
-        double tax = 0;
-        double previousCeiling = 0;
-
-        for (double[] bracket : TAX_BRACKETS) {
-            double ceiling = bracket[0];
-            double rate = bracket[1];
-
-            if (grossSalary <= previousCeiling)
-                break;
+    /**
+     * Income tax owed for a whole year (annual equalization): annual brackets are
+     * the monthly ones times twelve, and the year's credit points are the sum of
+     * each month's points.
+     */
+    public double calculateAnnualIncomeTax(double annualGross, double annualCreditPoints) {
+        double grossTax = 12 * calculateIncomeTax(annualGross / 12);
+        return round(Math.max(0, grossTax - annualCreditPoints * CREDIT_POINT_VALUE));
+    }
 
-            double taxableInBracket = Math.min(grossSalary, ceiling) - previousCeiling;
-            tax += taxableInBracket * rate;
-            previousCeiling = ceiling;
-        }
-        return tax;
+    /** Calculates income tax using 2026 progressive brackets (binary search over the prefix sums). */
+    static double calculateIncomeTax(double grossSalary) {
+        if (grossSalary <= 0)
+            return 0;
+        int i = Arrays.binarySearch(BRACKET_FLOORS, grossSalary);
+        // Exact hit on a floor: the amount is fully taxed by the bracket below it
+        int bracket = i >= 0 ? i - 1 : -i - 2;
+        return TAX_BELOW_FLOOR[bracket] + (grossSalary - BRACKET_FLOORS[bracket]) * BRACKET_RATES[bracket];
     }
 
     /** Calculates Bituach Leumi + Health Tax (employee portion). */
-    private double calculateBituachLeumi(double grossSalary) {
+    private static double calculateBituachLeumi(double grossSalary) {
         if (grossSalary <= BL_REDUCED_THRESHOLD) {
             return grossSalary * BL_REDUCED_RATE;
         }
@@ -156,20 +197,24 @@ public class IsraeliTaxCalculatorService {
     }
 
     /** Calculates total credit points based on gender and ex-soldier status. */
-    private double calculateCreditPoints(boolean isFemale, boolean isExSoldier, LocalDate dischargeDate) {
-        double points = isFemale ? BASE_CREDIT_POINTS_FEMALE : BASE_CREDIT_POINTS_MALE;
-
-        if (isExSoldier && dischargeDate != null) {
-            long monthsSinceDischarge = ChronoUnit.MONTHS.between(dischargeDate, LocalDate.now());
-            if (monthsSinceDischarge >= 0 && monthsSinceDischarge <= SOLDIER_BENEFIT_MONTHS) {
-                points += EX_SOLDIER_EXTRA_POINTS;
-            }
+    private double calculateCreditPoints(TaxProfile profile) {
+        double points = profile.female() ? BASE_CREDIT_POINTS_FEMALE : BASE_CREDIT_POINTS_MALE;
+        if (profile.soldierBenefit()) {
+            points += EX_SOLDIER_EXTRA_POINTS;
         }
-
         return points;
     }
 
-    private double round(double value) {
+    /** Whether asOf is within the ex-soldier benefit window after dischargeDate. */
+    static boolean soldierBenefitApplies(LocalDate dischargeDate, LocalDate asOf) {
+        if (dischargeDate == null) {
+            return false;
+        }
+        long monthsSinceDischarge = ChronoUnit.MONTHS.between(dischargeDate, asOf);
+        return monthsSinceDischarge >= 0 && monthsSinceDischarge <= SOLDIER_BENEFIT_MONTHS;
+    }
+
+    private static double round(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
 }
@@ -0,0 +1,17 @@
+package dxp.hourtracker.service;
+
+/**
+ * Monthly net salary breakdown. All amounts are in NIS, rounded to agorot.
+ * Serializes to the same JSON fields the summary has always returned.
+ */
+public record NetSalaryBreakdown(
+        double grossSalary,
+        double pensionDeduction,
+        double studyFundDeduction,
+        double bituachLeumiDeduction,
+        double creditPoints,
+        double creditDiscount,
+        double incomeTaxDeduction,
+        double totalDeductions,
+        double netSalary) {
+}
@@ -0,0 +1,59 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.config.CacheConfig;
+import dxp.hourtracker.user.UserSettings;
+import dxp.hourtracker.user.UserSettingsRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRateHistory;
+import dxp.hourtracker.workplace.WorkplaceRateRepository;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Cached, read-only lookups of the entities that carry pay rates.
+ *
+ * The returned instances are shared between requests: read them, don't modify
+ * them. Anything that saves a Workplace or UserSettings must call the matching
+ * evict method.
+ */
+@Service
+@RequiredArgsConstructor
+public class RateLookupService {
+
+    private final WorkplaceRepository workplaceRepository;
+    private final UserSettingsRepository userSettingsRepository;
+    private final WorkplaceRateRepository workplaceRateRepository;
+
+    @Cacheable(CacheConfig.WORKPLACES)
+    public Optional<Workplace> findWorkplace(Long workplaceId) {
+        return workplaceRepository.findById(workplaceId);
+    }
+
+    /** The workplace's rate history, indexed by date. */
+    @Cacheable(CacheConfig.WORKPLACE_RATES)
+    public WorkplaceRateHistory findRateHistory(Long workplaceId) {
+        return WorkplaceRateHistory.of(workplaceRateRepository.findByWorkplaceIdOrderByValidFromAsc(workplaceId));
+    }
+
+    @Cacheable(CacheConfig.USER_SETTINGS)
+    public Optional<UserSettings> findSettings(String userId) {
+        return userSettingsRepository.findByUserId(userId);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(CacheConfig.WORKPLACES),
+            @CacheEvict(CacheConfig.WORKPLACE_RATES)
+    })
+    public void evictWorkplace(Long workplaceId) {
+    }
+
+    @CacheEvict(CacheConfig.USER_SETTINGS)
+    public void evictSettings(String userId) {
+    }
+}
@@ -0,0 +1,37 @@
+package dxp.hourtracker.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dxp.hourtracker.shift.Shift;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One shift as the API returns it (create/update/end, history, summary).
+ * shiftType is the display name resolved through the registry.
+ */
+public record ShiftDto(
+        Long id,
+        LocalDate date,
+        LocalTime startTime,
+        LocalTime endTime,
+        String shiftType,
+        Long shiftTypeId,
+        Double hours,
+        Double salary,
+        Double overtimeHours,
+        Double overtimeSalary,
+        Double tipAmount) {
+
+    public static ShiftDto of(Shift s, String shiftTypeName) {
+        return new ShiftDto(s.getId(), s.getDate(), s.getStartTime(), s.getEndTime(), shiftTypeName,
+                s.getShiftTypeId(), s.getHours(), s.getSalary(), s.getOvertimeHours(), s.getOvertimeSalary(),
+                s.getTipAmount());
+    }
+
+    /** Older frontend builds read the tip as "tip". */
+    @JsonProperty("tip")
+    public Double tip() {
+        return tipAmount;
+    }
+}
@@ -0,0 +1,203 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.user.UserSettings;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Payroll export (CSV or XLSX) of a user's shifts in a date range, for
+ * reconciling against payslips.
+ *
+ * Rows are streamed from the database and written as they arrive, so memory
+ * use is the same for a week or for years of shifts. Each row splits the pay
+ * into base, Shabbat premium and overtime; a totals row closes the file.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShiftExportService {
+
+    public enum Format {
+        CSV, XLSX
+    }
+
+    private static final String[] HEADER = { "תאריך", "מקום עבודה", "סוג משמרת", "התחלה", "סיום", "שעות",
+            "שעות נוספות", "שכר בסיס", "תוספת שבת", "שכר שעות נוספות", "טיפים", "סה\"כ" };
+    private static final String TOTAL_LABEL = "סה\"כ";
+
+    private static final double DEFAULT_HOURLY_RATE = 51.0;
+    private static final double SHABBAT_MULTIPLIER = 1.5;
+    private static final int DEFAULT_SHABBAT_START = 15;
+    private static final int DEFAULT_SHABBAT_END = 5;
+
+    private final ShiftHistoryService shiftHistoryService;
+    private final ShiftTypeRegistry shiftTypeRegistry;
+    private final RateLookupService rateLookupService;
+
+    /** Rates used to split a shift's pay; resolved once per workplace and rate period per export. */
+    private record Rates(String workplaceName, double hourly, double shabbat, int shabbatStart, int shabbatEnd) {
+    }
+
+    /** Receives header, rows and totals in order. */
+    private interface RowSink {
+        void row(Object... cells) throws IOException;
+    }
+
+    public void export(String userId, Long workplaceId, LocalDate from, LocalDate to, Format format,
+            OutputStream out) throws IOException {
+        if (format == Format.XLSX) {
+            try (XlsxSheetWriter xlsx = new XlsxSheetWriter(out, "משמרות", true)) {
+                writeRows(userId, workplaceId, from, to, xlsx::row);
+            }
+        } else {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write('\uFEFF'); // BOM, so Excel opens the Hebrew as UTF-8
+            writeRows(userId, workplaceId, from, to, cells -> writeCsvRow(writer, cells));
+            writer.flush();
+        }
+    }
+
+    private void writeRows(String userId, Long workplaceId, LocalDate from, LocalDate to, RowSink sink)
+            throws IOException {
+        sink.row((Object[]) HEADER);
+
+        Map<Object, Rates> ratesCache = new HashMap<>(); // by rate history row, else by workplace id
+        double[] totals = new double[7]; // hours, overtime hours, base, shabbat, overtime, tips, total
+        try {
+            shiftHistoryService.forEachShiftBetween(userId, workplaceId, from, to, shift -> {
+                Rates rates = ratesFor(userId, shift, ratesCache);
+                double[] amounts = amounts(shift, rates);
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += amounts[i];
+                }
+                try {
+                    sink.row(shift.getDate().toString(), rates.workplaceName(), shiftTypeRegistry.displayName(shift),
+                            shift.getStartTime() != null ? shift.getStartTime().toString() : null,
+                            shift.getEndTime() != null ? shift.getEndTime().toString() : null,
+                            round(amounts[0]), round(amounts[1]), round(amounts[2]), round(amounts[3]),
+                            round(amounts[4]), round(amounts[5]), round(amounts[6]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        sink.row(TOTAL_LABEL, null, null, null, null, round(totals[0]), round(totals[1]), round(totals[2]),
+                round(totals[3]), round(totals[4]), round(totals[5]), round(totals[6]));
+    }
+
+    /**
+     * Hours, overtime hours, base pay, Shabbat premium, overtime pay, tips and
+     * total for one shift. The premium is recomputed from the Shabbat overlap
+     * and the rates; base pay is what's left of the stored salary, so the
+     * columns always add up to what the shift was actually paid.
+     */
+    private static double[] amounts(Shift shift, Rates rates) {
+        double salary = value(shift.getSalary());
+        double overtime = value(shift.getOvertimeSalary());
+        double tips = value(shift.getTipAmount());
+
+        double premium = 0;
+        if (shift.getStartTime() != null && shift.getEndTime() != null) {
+            LocalDateTime start = LocalDateTime.of(shift.getDate(), shift.getStartTime());
+            LocalDateTime end = LocalDateTime.of(shift.getDate(), shift.getEndTime());
+            if (end.isBefore(start)) {
+                end = end.plusDays(1);
+            }
+            long shabbatMinutes = WageCalculatorService.shabbatOverlapMinutes(WageCalculatorService.epochMinute(start),
+                    WageCalculatorService.epochMinute(end), rates.shabbatStart(), rates.shabbatEnd());
+            premium = Math.max(0, shabbatMinutes / 60.0 * (rates.shabbat() - rates.hourly()));
+        }
+        double base = salary - overtime - premium;
+
+        return new double[] { value(shift.getHours()), value(shift.getOvertimeHours()), base, premium, overtime,
+                tips, salary + tips };
+    }
+
+    private Rates ratesFor(String userId, Shift shift, Map<Object, Rates> cache) {
+        Long workplaceId = shift.getWorkplaceId();
+        if (workplaceId != null) {
+            WorkplaceRate row = rateLookupService.findRateHistory(workplaceId).at(shift.getDate()).orElse(null);
+            if (row != null) {
+                return cache.computeIfAbsent(row, key -> resolveRates(userId, workplaceId, row));
+            }
+        }
+        return cache.computeIfAbsent(workplaceId != null ? workplaceId : userId,
+                key -> resolveRates(userId, workplaceId, null));
+    }
+
+    // Same precedence as ShiftService pricing: the workplace's rates on the shift's date (or its
+    // current ones), else the legacy user settings
+    private Rates resolveRates(String userId, Long workplaceId, WorkplaceRate row) {
+        if (workplaceId != null) {
+            Workplace wp = rateLookupService.findWorkplace(workplaceId).orElse(null);
+            if (wp != null) {
+                WorkplaceRate rates = row != null ? row : WorkplaceRate.of(wp);
+                double hourly = rates.getHourlyRate() != null ? rates.getHourlyRate() : DEFAULT_HOURLY_RATE;
+                return new Rates(wp.getName(), hourly, shabbatRate(rates.getShabatHourlyRate(), hourly),
+                        rates.getShabbatStartHour() != null ? rates.getShabbatStartHour() : DEFAULT_SHABBAT_START,
+                        rates.getShabbatEndHour() != null ? rates.getShabbatEndHour() : DEFAULT_SHABBAT_END);
+            }
+        }
+        UserSettings settings = rateLookupService.findSettings(userId).orElse(new UserSettings());
+        double hourly = settings.getHourlyRate() != null && settings.getHourlyRate() > 0 ? settings.getHourlyRate()
+                : DEFAULT_HOURLY_RATE;
+        return new Rates(null, hourly, shabbatRate(settings.getShabatHourlyRate(), hourly), DEFAULT_SHABBAT_START,
+                DEFAULT_SHABBAT_END);
+    }
+
+    private static double shabbatRate(Double custom, double hourly) {
+        return custom != null && custom > 0 ? custom : hourly * SHABBAT_MULTIPLIER;
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object cell = cells[i];
+            if (cell instanceof Number) {
+                writer.write(cell.toString());
+            } else if (cell != null) {
+                writer.write(csvText(cell.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvText(String text) {
+        // Leading =, +, - or @ would make a spreadsheet evaluate the cell as a formula
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static double value(Double d) {
+        return d != null ? d : 0.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,51 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Walks a user's full shift history without materializing it.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShiftHistoryService {
+
+    private final ShiftRepository shiftRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Feeds every shift (newest first) to the given action. Each shift is
+     * detached once handled so the persistence context stays empty no matter how
+     * long the history is.
+     */
+    @Transactional(readOnly = true)
+    public void forEachShift(String userId, Long workplaceId, Consumer<Shift> action) {
+        try (Stream<Shift> shifts = shiftRepository.streamHistory(userId, workplaceId)) {
+            drain(shifts, action);
+        }
+    }
+
+    /** Same for the shifts dated in [from, to], oldest first. */
+    @Transactional(readOnly = true)
+    public void forEachShiftBetween(String userId, Long workplaceId, LocalDate from, LocalDate to,
+            Consumer<Shift> action) {
+        try (Stream<Shift> shifts = shiftRepository.streamRange(userId, workplaceId, from, to)) {
+            drain(shifts, action);
+        }
+    }
+
+    private void drain(Stream<Shift> shifts, Consumer<Shift> action) {
+        shifts.forEach(shift -> {
+            action.accept(shift);
+            entityManager.detach(shift);
+        });
+    }
+}
@@ -0,0 +1,450 @@
+package dxp.hourtracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dxp.hourtracker.config.BackgroundDbSlots;
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk import of historical shifts from a CSV file, run as a background job.
+ *
+ * The file is read once, one chunk of rows at a time. Chunks are resolved
+ * (workplace, shift type) and priced in parallel, a few ahead, and inserted in
+ * file order through {@link ShiftService#saveShifts} (JDBC batches, one rollup
+ * delta per period row), each chunk in its own short transaction so rollup
+ * locks are never held for the whole file.
+ *
+ * Every imported shift is tagged with the import's id, a hash of the file.
+ * After the first invalid row nothing more is inserted, the rest of the file is
+ * only checked so all errors get reported, and the shifts already inserted are
+ * deleted again ({@link ShiftService#deleteImport}): the job ends DONE with
+ * every row imported, or FAILED with none. Anything a crashed run left behind
+ * carries the same id, and each run starts by deleting it, so uploading a
+ * file again never adds its shifts twice.
+ *
+ * Jobs wait for {@link BackgroundDbSlots} before they start.
+ *
+ * Columns are matched by header name, in English or as the export writes
+ * them; the export's totals row is skipped. Jobs live in memory for an hour.
+ */
+@Service
+@Slf4j
+public class ShiftImportService {
+
+    public static final int MAX_ROWS = 50_000;
+    private static final int CHUNK_SIZE = ShiftService.MAX_BATCH_SIZE;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int PRICING_CONCURRENCY = 4;
+    // A chunk's transaction, plus the one the shift id generator allocates on
+    private static final int CONNECTIONS = 2;
+    private static final String TOTAL_LABEL = "סה\"כ";
+
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    // Header aliases per field; the export's Hebrew headers are included so its files import back
+    private static final Map<String, String> HEADER_ALIASES = new HashMap<>();
+
+    static {
+        alias("date", "date", "תאריך");
+        alias("start", "starttime", "start", "התחלה");
+        alias("end", "endtime", "end", "סיום");
+        alias("type", "shifttype", "type", "shiftcode", "סוג משמרת");
+        alias("workplace", "workplace", "workplaceid", "מקום עבודה");
+        alias("overtime", "overtimehours", "שעות נוספות");
+        alias("tip", "tipamount", "tip", "tips", "טיפים");
+    }
+
+    private static void alias(String field, String... names) {
+        for (String name : names) {
+            HEADER_ALIASES.put(name, field);
+        }
+    }
+
+    public enum Status {
+        VALIDATING, IMPORTING, DONE, FAILED
+    }
+
+    public record RowError(int line, String error) {
+    }
+
+    /** What GET /api/import/{jobId} returns. */
+    public record Progress(String jobId, Status status, int rows, int validated, int imported, int failed,
+            List<RowError> errors, String message) {
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final String userId;
+        volatile String importId;
+        volatile Status status = Status.VALIDATING;
+        volatile String message;
+        final AtomicInteger rows = new AtomicInteger();
+        final AtomicInteger validated = new AtomicInteger();
+        final AtomicInteger imported = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final List<RowError> errors = new ArrayList<>(); // guarded by itself, capped
+
+        Job(String userId) {
+            this.userId = userId;
+        }
+
+        void fail(int line, String error) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new RowError(line, error));
+                }
+            }
+        }
+
+        Progress progress() {
+            List<RowError> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            return new Progress(id, status, rows.get(), validated.get(), imported.get(), failed.get(), reported,
+                    message);
+        }
+    }
+
+    /** A CSV row turned into a createShift payload, with the line it came from. */
+    private record Row(int line, Map<String, Object> payload) {
+    }
+
+    private final ShiftService shiftService;
+    private final ShiftTypeRegistry shiftTypeRegistry;
+    private final WorkplaceRepository workplaceRepository;
+    private final BackgroundDbSlots backgroundDbSlots;
+
+    private final Cache<String, Job> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(1_000)
+            .build();
+
+    // Not beans (see SummaryService). Jobs get a virtual thread each; pricing is
+    // capped so one big file can't take every core.
+    private final SimpleAsyncTaskExecutor jobExecutor;
+    private final SimpleAsyncTaskExecutor pricingExecutor;
+
+    public ShiftImportService(ShiftService shiftService, ShiftTypeRegistry shiftTypeRegistry,
+            WorkplaceRepository workplaceRepository, BackgroundDbSlots backgroundDbSlots) {
+        this.shiftService = shiftService;
+        this.shiftTypeRegistry = shiftTypeRegistry;
+        this.workplaceRepository = workplaceRepository;
+        this.backgroundDbSlots = backgroundDbSlots;
+        this.jobExecutor = new SimpleAsyncTaskExecutor("import-");
+        this.jobExecutor.setVirtualThreads(true);
+        this.pricingExecutor = new SimpleAsyncTaskExecutor("import-pricing-");
+        this.pricingExecutor.setVirtualThreads(true);
+        this.pricingExecutor.setConcurrencyLimit(PRICING_CONCURRENCY);
+    }
+
+    /**
+     * Starts importing the CSV at the given path, which the job deletes when
+     * it's done. Rows without a workplace go to defaultWorkplaceId, else to the
+     * user's default workplace.
+     */
+    public synchronized Progress start(String userId, Path csv, Long defaultWorkplaceId) {
+        for (Job job : jobs.asMap().values()) {
+            if (job.userId.equals(userId) && (job.status == Status.VALIDATING || job.status == Status.IMPORTING)) {
+                deleteQuietly(csv);
+                throw new IllegalStateException("An import is already running");
+            }
+        }
+        Job job = new Job(userId);
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> backgroundDbSlots.run(CONNECTIONS, () -> run(job, csv, defaultWorkplaceId)));
+        return job.progress();
+    }
+
+    public Optional<Progress> progress(String userId, String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        return job != null && job.userId.equals(userId) ? Optional.of(job.progress()) : Optional.empty();
+    }
+
+    private void run(Job job, Path csv, Long defaultWorkplaceId) {
+        Status outcome = Status.FAILED;
+        try {
+            RowMapper mapper = new RowMapper(job.userId, defaultWorkplaceId);
+            job.importId = importId(csv);
+            int replaced = shiftService.deleteImport(job.userId, job.importId);
+            if (replaced > 0) {
+                log.info("Import {} replaces {} shifts from an earlier upload of the same file", job.id, replaced);
+            }
+
+            // Pricing runs up to PRICING_CONCURRENCY chunks ahead of the inserts
+            Deque<CompletableFuture<List<Shift>>> inFlight = new ArrayDeque<>();
+            readChunks(csv, mapper, job, chunk -> {
+                inFlight.add(CompletableFuture.supplyAsync(() -> priceChunk(job, chunk), pricingExecutor));
+                if (inFlight.size() > PRICING_CONCURRENCY) {
+                    saveChunk(job, inFlight.poll().join());
+                }
+            });
+            while (!inFlight.isEmpty()) {
+                saveChunk(job, inFlight.poll().join());
+            }
+
+            if (job.failed.get() > 0) {
+                undo(job);
+                job.message = job.failed.get() + " rows failed validation, nothing was imported";
+                return;
+            }
+            outcome = Status.DONE;
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            log.warn("Import {} for user {} failed", job.id, job.userId, cause);
+            undo(job);
+            job.message = cause instanceof IllegalArgumentException || cause instanceof IOException
+                    ? cause.getMessage()
+                    : "Import failed, nothing was imported";
+        } finally {
+            // Cleaned up before the job shows as finished
+            deleteQuietly(csv);
+            job.status = outcome;
+        }
+    }
+
+    private List<Shift> priceChunk(Job job, List<Row> chunk) {
+        List<ShiftService.BatchItemResult> results = shiftService.priceShifts(job.userId, payloads(chunk));
+        List<Shift> priced = new ArrayList<>(results.size());
+        for (ShiftService.BatchItemResult result : results) {
+            if (result.shift() != null) {
+                result.shift().setImportId(job.importId);
+                priced.add(result.shift());
+            } else {
+                job.fail(chunk.get(result.index()).line(), result.error());
+            }
+        }
+        job.validated.addAndGet(chunk.size());
+        return priced;
+    }
+
+    // One transaction per chunk. Once a row has failed the file won't be kept,
+    // so the remaining chunks are only priced.
+    private void saveChunk(Job job, List<Shift> priced) {
+        if (job.failed.get() > 0 || priced.isEmpty()) {
+            return;
+        }
+        job.status = Status.IMPORTING;
+        shiftService.saveShifts(job.userId, priced);
+        job.imported.addAndGet(priced.size());
+    }
+
+    // Deletes what this run inserted. If that fails too, the shifts stay tagged
+    // and the next upload of the file deletes them.
+    private void undo(Job job) {
+        if (job.importId == null || job.imported.get() == 0) {
+            return;
+        }
+        try {
+            shiftService.deleteImport(job.userId, job.importId);
+            job.imported.set(0);
+        } catch (RuntimeException e) {
+            log.error("Could not undo import {} for user {}", job.id, job.userId, e);
+        }
+    }
+
+    // SHA-256 of the file's bytes, hex encoded
+    private static String importId(Path csv) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(csv), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private interface ChunkHandler {
+        void accept(List<Row> chunk);
+    }
+
+    // Reads the file and hands over CHUNK_SIZE rows at a time. Rows that can't be
+    // mapped are reported right away instead.
+    private void readChunks(Path csv, RowMapper mapper, Job job, ChunkHandler handler)
+            throws IOException {
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            Map<String, Integer> columns = columns(header);
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            int count = 0;
+            for (List<String> record; (record = reader.next()) != null;) {
+                String first = record.get(0).trim();
+                if (first.equals(TOTAL_LABEL)) {
+                    continue;
+                }
+                if (++count > MAX_ROWS) {
+                    throw new IllegalArgumentException("At most " + MAX_ROWS + " rows per import");
+                }
+                job.rows.incrementAndGet();
+                try {
+                    chunk.add(new Row(reader.line(), mapper.payload(columns, record)));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    job.fail(reader.line(), e.getMessage());
+                    job.validated.incrementAndGet();
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    handler.accept(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                handler.accept(chunk);
+            }
+        }
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String field = HEADER_ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+            if (field != null) {
+                columns.putIfAbsent(field, i);
+            }
+        }
+        for (String required : List.of("date", "start", "end", "type")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static List<Map<String, Object>> payloads(List<Row> chunk) {
+        List<Map<String, Object>> payloads = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            payloads.add(row.payload());
+        }
+        return payloads;
+    }
+
+    /** Turns CSV records into createShift payloads: resolves workplace names and shift type names to ids/codes. */
+    private final class RowMapper {
+        private final Long defaultWorkplaceId;
+        private final Map<String, Long> workplacesByKey = new HashMap<>();
+
+        RowMapper(String userId, Long defaultWorkplaceId) {
+            Long fallback = defaultWorkplaceId;
+            for (Workplace wp : workplaceRepository.findByUserId(userId)) {
+                workplacesByKey.put(wp.getId().toString(), wp.getId());
+                if (wp.getName() != null) {
+                    workplacesByKey.putIfAbsent(wp.getName().trim(), wp.getId());
+                }
+                if (fallback == null && wp.isDefault()) {
+                    fallback = wp.getId();
+                }
+            }
+            this.defaultWorkplaceId = fallback;
+        }
+
+        Map<String, Object> payload(Map<String, Integer> columns, List<String> record) {
+            String workplace = cell(columns, record, "workplace");
+            Long workplaceId = workplace != null ? workplacesByKey.get(workplace) : defaultWorkplaceId;
+            if (workplace != null && workplaceId == null) {
+                throw new IllegalArgumentException("Unknown workplace: " + workplace);
+            }
+
+            String typeCell = cell(columns, record, "type");
+            if (typeCell == null) {
+                throw new IllegalArgumentException("Shift type is required");
+            }
+            ShiftType type = shiftTypeRegistry.findByCode(workplaceId, typeCell)
+                    .or(() -> shiftTypeRegistry.findByName(workplaceId, typeCell))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + typeCell));
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("shiftCode", type.getCode());
+            payload.put("date", date(cell(columns, record, "date")).toString());
+            payload.put("startTime", cell(columns, record, "start"));
+            payload.put("endTime", cell(columns, record, "end"));
+            if (workplaceId != null) {
+                payload.put("workplaceId", workplaceId);
+            }
+            Double overtime = number(cell(columns, record, "overtime"));
+            if (overtime != null) {
+                payload.put("overtimeHours", overtime);
+            }
+            Double tip = number(cell(columns, record, "tip"));
+            if (tip != null) {
+                payload.put("tipAmount", tip);
+            }
+            return payload;
+        }
+    }
+
+    private static String cell(Map<String, Integer> columns, List<String> record, String field) {
+        Integer index = columns.get(field);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // ISO (2026-03-01) or day-first as Israeli spreadsheets write it (1/3/2026)
+    private static LocalDate date(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        return value.indexOf('/') >= 0 ? LocalDate.parse(value, DAY_FIRST) : LocalDate.parse(value);
+    }
+
+    private static Double number(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.config.BackgroundDbSlots;
+import dxp.hourtracker.shift.RepriceJob;
+import dxp.hourtracker.shift.RepriceJobRepository;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Recomputes the pay of a workplace's existing shifts after its rates change.
+ *
+ * A job walks the shifts from a start date in (date, id) order, 500 at a time.
+ * Each chunk is its own transaction: the shifts are locked, priced again with
+ * {@link ShiftService#reprice}, the changed ones updated (JDBC batches) and the
+ * rollup moved by the difference, and the job's cursor committed with them.
+ * A restart resumes RUNNING jobs from their cursor. Jobs wait for
+ * {@link BackgroundDbSlots} before they start.
+ */
+@Service
+@Slf4j
+public class ShiftRepriceService {
+
+    static final int CHUNK_SIZE = 500;
+    // One chunk transaction at a time; updates don't allocate ids
+    private static final int CONNECTIONS = 1;
+
+    private final RepriceJobRepository jobRepository;
+    private final ShiftRepository shiftRepository;
+    private final ShiftService shiftService;
+    private final ShiftRollupService shiftRollupService;
+    private final DataVersionService dataVersionService;
+    private final BackgroundDbSlots backgroundDbSlots;
+    private final TransactionTemplate tx;
+
+    // Not a bean (see SummaryService); one virtual thread per running job
+    private final SimpleAsyncTaskExecutor executor;
+
+    public ShiftRepriceService(RepriceJobRepository jobRepository, ShiftRepository shiftRepository,
+            ShiftService shiftService, ShiftRollupService shiftRollupService, DataVersionService dataVersionService,
+            BackgroundDbSlots backgroundDbSlots, PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.shiftRepository = shiftRepository;
+        this.shiftService = shiftService;
+        this.shiftRollupService = shiftRollupService;
+        this.dataVersionService = dataVersionService;
+        this.backgroundDbSlots = backgroundDbSlots;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.executor = new SimpleAsyncTaskExecutor("reprice-");
+        this.executor.setVirtualThreads(true);
+    }
+
+    /**
+     * Starts repricing the workplace's shifts dated from the given day on. A job
+     * already running for the workplace is superseded, and the new one also
+     * covers its range, since what it finished was priced with older rates.
+     */
+    public RepriceJob start(String userId, Long workplaceId, LocalDate from) {
+        RepriceJob job = tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate fromDate = from;
+            for (RepriceJob running : jobRepository.findByWorkplaceIdAndStatus(workplaceId, RepriceJob.Status.RUNNING)) {
+                if (running.getFromDate().isBefore(fromDate)) {
+                    fromDate = running.getFromDate();
+                }
+                running.setStatus(RepriceJob.Status.SUPERSEDED);
+                running.setUpdatedAt(now);
+            }
+            return jobRepository.save(RepriceJob.builder()
+                    .id(UUID.randomUUID().toString())
+                    .userId(userId)
+                    .workplaceId(workplaceId)
+                    .fromDate(fromDate)
+                    .status(RepriceJob.Status.RUNNING)
+                    // id 0 sorts before every shift on the first day
+                    .cursorDate(fromDate)
+                    .cursorId(0L)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        });
+        executor.execute(() -> backgroundDbSlots.run(CONNECTIONS, () -> run(job.getId())));
+        return job;
+    }
+
+    /** Stops the workplace's running jobs, e.g. before its shifts are deleted or moved. */
+    public void cancel(Long workplaceId) {
+        tx.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (RepriceJob running : jobRepository.findByWorkplaceIdAndStatus(workplaceId, RepriceJob.Status.RUNNING)) {
+                running.setStatus(RepriceJob.Status.SUPERSEDED);
+                running.setUpdatedAt(now);
+            }
+        });
+    }
+
+    public Optional<RepriceJob> find(String userId, String jobId) {
+        return jobRepository.findById(jobId).filter(job -> job.getUserId().equals(userId));
+    }
+
+    /** Picks up jobs a restart interrupted. Returns how many were resumed. */
+    public int resumeAll() {
+        List<RepriceJob> running = jobRepository.findByStatus(RepriceJob.Status.RUNNING);
+        for (RepriceJob job : running) {
+            log.info("Resuming reprice job {} for workplace {} at {}", job.getId(), job.getWorkplaceId(),
+                    job.getCursorDate());
+            executor.execute(() -> backgroundDbSlots.run(CONNECTIONS, () -> run(job.getId())));
+        }
+        return running.size();
+    }
+
+    private void run(String jobId) {
+        try {
+            while (Boolean.TRUE.equals(tx.execute(status -> runChunk(jobId)))) {
+                // next chunk
+            }
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Superseded while a chunk was running; that chunk rolled back and the new job redoes it
+            log.info("Reprice job {} was superseded", jobId);
+        } catch (RuntimeException e) {
+            log.warn("Reprice job {} failed", jobId, e);
+            tx.executeWithoutResult(status -> jobRepository.findById(jobId)
+                    .filter(job -> job.getStatus() == RepriceJob.Status.RUNNING)
+                    .ifPresent(job -> {
+                        job.setStatus(RepriceJob.Status.FAILED);
+                        job.setMessage(e.getClass().getSimpleName() + ": " + e.getMessage());
+                        job.setUpdatedAt(LocalDateTime.now());
+                    }));
+        }
+    }
+
+    /** Prices and saves one chunk. Returns true if there's more to do. */
+    private boolean runChunk(String jobId) {
+        RepriceJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != RepriceJob.Status.RUNNING) {
+            return false;
+        }
+
+        List<Shift> shifts = shiftRepository.findChunkAfter(job.getUserId(), job.getWorkplaceId(),
+                job.getCursorDate(), job.getCursorId(), PageRequest.of(0, CHUNK_SIZE));
+        List<Shift> before = new ArrayList<>();
+        List<Shift> after = new ArrayList<>();
+        for (Shift shift : shifts) {
+            Shift priced;
+            try {
+                priced = shiftService.reprice(shift);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                job.setSkipped(job.getSkipped() + 1);
+                continue;
+            }
+            if (samePay(shift, priced)) {
+                continue;
+            }
+            before.add(rollupValues(shift));
+            // Managed entity: dirty checking turns these into batched UPDATEs at commit
+            shift.setHours(priced.getHours());
+            shift.setSalary(priced.getSalary());
+            shift.setOvertimeHourlyRate(priced.getOvertimeHourlyRate());
+            shift.setOvertimeSalary(priced.getOvertimeSalary());
+            after.add(shift);
+        }
+
+        if (!after.isEmpty()) {
+            shiftRollupService.replaceAll(before, after);
+            dataVersionService.bump(job.getUserId());
+        }
+
+        job.setProcessed(job.getProcessed() + shifts.size());
+        job.setChanged(job.getChanged() + after.size());
+        if (!shifts.isEmpty()) {
+            Shift last = shifts.get(shifts.size() - 1);
+            job.setCursorDate(last.getDate());
+            job.setCursorId(last.getId());
+        }
+        if (shifts.size() < CHUNK_SIZE) {
+            job.setStatus(RepriceJob.Status.DONE);
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        return job.getStatus() == RepriceJob.Status.RUNNING;
+    }
+
+    private static boolean samePay(Shift current, Shift priced) {
+        return Objects.equals(current.getHours(), priced.getHours())
+                && Objects.equals(current.getSalary(), priced.getSalary())
+                && Objects.equals(current.getOvertimeHourlyRate(), priced.getOvertimeHourlyRate())
+                && Objects.equals(current.getOvertimeSalary(), priced.getOvertimeSalary());
+    }
+
+    // Detached copy of what the rollup counts, taken before the entity is changed
+    private static Shift rollupValues(Shift shift) {
+        return Shift.builder()
+                .userId(shift.getUserId())
+                .workplaceId(shift.getWorkplaceId())
+                .date(shift.getDate())
+                .startTime(shift.getStartTime())
+                .hours(shift.getHours())
+                .salary(shift.getSalary())
+                .overtimeSalary(shift.getOvertimeSalary())
+                .tipAmount(shift.getTipAmount())
+                .build();
+    }
+}
@@ -0,0 +1,372 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.shift.PeriodTotals;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollup;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link ShiftRollup} table in step with the shifts table.
+ *
+ * Every shift write calls {@link #add} / {@link #remove} inside its own
+ * transaction so the rollup moves by exact deltas. {@link #reconcileAll}
+ * recomputes everything from the shifts table and reports drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShiftRollupService {
+
+    private static final double DRIFT_TOLERANCE = 0.005;
+    private static final int BULK_ROLLUP_THRESHOLD = 20;
+
+    private final ShiftRollupRepository rollupRepository;
+    private final ShiftRepository shiftRepository;
+    private final ShiftHistoryService shiftHistoryService;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Adds a saved shift's values to its period row. */
+    @Transactional
+    public void add(Shift shift) {
+        apply(shift, 1);
+    }
+
+    /** Subtracts a shift's values, typically right before it's changed or deleted. */
+    @Transactional
+    public void remove(Shift shift) {
+        apply(shift, -1);
+    }
+
+    /**
+     * Adds many saved shifts, summed per period row first so a batch costs one
+     * delta per (workplace, day) rather than one per shift. Large batches (an
+     * import spanning months) lock the affected rows once and update them in
+     * memory instead of issuing an UPDATE per day.
+     */
+    @Transactional
+    public void addAll(Collection<Shift> shifts) {
+        Map<String, Map<RollupKey, ShiftRollup>> deltasByUser = new HashMap<>();
+        for (Shift shift : shifts) {
+            accumulate(deltasByUser.computeIfAbsent(shift.getUserId(), u -> new HashMap<>()), shift);
+        }
+        deltasByUser.forEach((userId, deltas) -> {
+            if (deltas.size() <= BULK_ROLLUP_THRESHOLD) {
+                deltas.values().forEach(this::upsert);
+            } else {
+                mergeDeltas(userId, deltas);
+            }
+        });
+    }
+
+    /**
+     * Moves the rollup from the before values of some shifts to their after
+     * values (e.g. repriced pay), as one delta per period row.
+     */
+    @Transactional
+    public void replaceAll(Collection<Shift> before, Collection<Shift> after) {
+        Map<String, Map<RollupKey, ShiftRollup>> deltasByUser = new HashMap<>();
+        for (Shift shift : before) {
+            accumulate(deltasByUser.computeIfAbsent(shift.getUserId(), u -> new HashMap<>()), shift, -1);
+        }
+        for (Shift shift : after) {
+            accumulate(deltasByUser.computeIfAbsent(shift.getUserId(), u -> new HashMap<>()), shift, 1);
+        }
+        deltasByUser.forEach((userId, deltas) -> mergeDeltas(userId, deltas));
+    }
+
+    /**
+     * Moves one workplace's rows to another after its shifts were moved there,
+     * without rereading the shifts: days both have are added into the target's
+     * row, the rest change workplace in one UPDATE.
+     */
+    @Transactional
+    public void moveWorkplace(String userId, Long sourceId, Long targetId) {
+        Map<LocalDate, ShiftRollup> moving = new HashMap<>();
+        for (ShiftRollup row : rollupRepository.findAllByUserIdAndWorkplaceId(userId, sourceId)) {
+            moving.put(row.getPeriodDate(), row);
+        }
+        if (moving.isEmpty()) {
+            return;
+        }
+        LocalDate from = moving.keySet().stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate to = moving.keySet().stream().max(LocalDate::compareTo).orElseThrow();
+        List<Long> merged = new ArrayList<>();
+        for (ShiftRollup row : rollupRepository.findForUpdate(userId, from, to)) {
+            ShiftRollup source = targetId.equals(row.getWorkplaceId()) ? moving.get(row.getPeriodDate()) : null;
+            if (source != null) {
+                addTo(row, source, 1);
+                merged.add(source.getId());
+            }
+        }
+        if (!merged.isEmpty()) {
+            rollupRepository.deleteAllByIdInBatch(merged);
+        }
+        rollupRepository.moveWorkplace(userId, sourceId, targetId);
+    }
+
+    /**
+     * Moves the rollup values of the shifts {@link ShiftRepository#reassignShifts}
+     * is about to move (same arguments); call it first, in the same
+     * transaction. Their totals come from one aggregate per (workplace, day),
+     * read after the affected rows are locked: shift writes update those rows
+     * too, so none can change the shifts between the two. A day whose shifts
+     * all move, and that the target has no row for yet, has its row repointed
+     * instead of emptied, so moving legacy shifts costs a few batched UPDATEs
+     * rather than an INSERT per day.
+     *
+     * @return the totals that were moved, empty if no shift matches
+     */
+    @Transactional
+    public List<PeriodTotals> moveShifts(String userId, Long sourceId, Long targetId, LocalDate from,
+            LocalDate to) {
+        // Shifts dated [from, to] fall in the periods [from - 1, to]
+        List<ShiftRollup> locked = from != null && to != null
+                ? rollupRepository.findForUpdate(userId, from.minusDays(1), to)
+                : rollupRepository.findAllForUpdate(userId);
+        List<PeriodTotals> moved = shiftRepository.sumForReassign(userId, sourceId, from, to);
+
+        Map<RollupKey, ShiftRollup> stored = new HashMap<>();
+        for (ShiftRollup row : locked) {
+            stored.put(new RollupKey(row.getWorkplaceId(), row.getPeriodDate()), row);
+        }
+        for (PeriodTotals totals : moved) {
+            ShiftRollup delta = delta(userId, totals);
+            ShiftRollup source = stored.get(new RollupKey(totals.getWorkplaceId(), totals.getPeriodDate()));
+            ShiftRollup target = stored.get(new RollupKey(targetId, totals.getPeriodDate()));
+            if (source != null && target == null && Objects.equals(source.getShiftCount(), delta.getShiftCount())) {
+                source.setWorkplaceId(targetId);
+                continue;
+            }
+            if (source != null) {
+                addTo(source, delta, -1);
+            }
+            if (target != null) {
+                addTo(target, delta, 1);
+            } else {
+                delta.setWorkplaceId(targetId);
+                upsert(delta);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Takes one import's shifts ({@link ShiftRepository#sumForImport}) out of
+     * the rollup; the caller deletes them next, in the same transaction. As in
+     * {@link #moveShifts}, the user's rows are locked before the aggregate is
+     * read.
+     */
+    @Transactional
+    public void removeImport(String userId, String importId) {
+        List<ShiftRollup> locked = rollupRepository.findAllForUpdate(userId);
+        List<PeriodTotals> removed = shiftRepository.sumForImport(userId, importId);
+        if (removed.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, ShiftRollup> stored = new HashMap<>();
+        for (ShiftRollup row : locked) {
+            stored.put(new RollupKey(row.getWorkplaceId(), row.getPeriodDate()), row);
+        }
+        for (PeriodTotals totals : removed) {
+            // A missing row is left to reconciliation, as in apply()
+            ShiftRollup row = stored.get(new RollupKey(totals.getWorkplaceId(), totals.getPeriodDate()));
+            if (row != null) {
+                addTo(row, delta(userId, totals), -1);
+            }
+        }
+    }
+
+    private static ShiftRollup delta(String userId, PeriodTotals totals) {
+        LocalDate periodDate = totals.getPeriodDate();
+        return ShiftRollup.builder()
+                .userId(userId)
+                .workplaceId(totals.getWorkplaceId())
+                .periodDate(periodDate)
+                .periodMonth(ShiftRollup.periodMonthOf(periodDate))
+                .periodWeek(ShiftRollup.periodWeekOf(periodDate))
+                .hours(valueOf(totals.getHours()))
+                .salary(valueOf(totals.getSalary()))
+                .overtimeSalary(valueOf(totals.getOvertimeSalary()))
+                .tips(valueOf(totals.getTips()))
+                .shiftCount(totals.getShiftCount().intValue())
+                .build();
+    }
+
+    // Atomic insert-or-add, so a day's first writers can't race each other into two rows
+    private void upsert(ShiftRollup delta) {
+        rollupRepository.upsertDelta(delta.getUserId(), delta.getWorkplaceId(), delta.getPeriodDate(),
+                delta.getPeriodMonth(), delta.getPeriodWeek(), valueOf(delta.getHours()),
+                valueOf(delta.getSalary()), valueOf(delta.getOvertimeSalary()), valueOf(delta.getTips()),
+                delta.getShiftCount());
+    }
+
+    private void mergeDeltas(String userId, Map<RollupKey, ShiftRollup> deltas) {
+        LocalDate from = deltas.keySet().stream().map(RollupKey::periodDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate to = deltas.keySet().stream().map(RollupKey::periodDate).max(LocalDate::compareTo).orElseThrow();
+        Map<RollupKey, ShiftRollup> remaining = new HashMap<>(deltas);
+        for (ShiftRollup row : rollupRepository.findForUpdate(userId, from, to)) {
+            ShiftRollup delta = remaining.remove(new RollupKey(row.getWorkplaceId(), row.getPeriodDate()));
+            if (delta != null) {
+                addTo(row, delta, 1);
+            }
+        }
+        // As in apply(): only new shifts create rows, anything else missing is left to reconciliation.
+        // Rows that appeared since the lock was taken are added to, not duplicated.
+        remaining.values().stream().filter(delta -> delta.getShiftCount() > 0).forEach(this::upsert);
+    }
+
+    private static void addTo(ShiftRollup row, ShiftRollup delta, int sign) {
+        row.setHours(valueOf(row.getHours()) + sign * valueOf(delta.getHours()));
+        row.setSalary(valueOf(row.getSalary()) + sign * valueOf(delta.getSalary()));
+        row.setOvertimeSalary(valueOf(row.getOvertimeSalary()) + sign * valueOf(delta.getOvertimeSalary()));
+        row.setTips(valueOf(row.getTips()) + sign * valueOf(delta.getTips()));
+        row.setShiftCount((row.getShiftCount() != null ? row.getShiftCount() : 0)
+                + sign * (delta.getShiftCount() != null ? delta.getShiftCount() : 0));
+    }
+
+    private void apply(Shift shift, int sign) {
+        LocalDate periodDate = ShiftRollup.periodDateOf(shift.getDate(), shift.getStartTime());
+        if (sign < 0) {
+            // A missing row on removal means the rollup hasn't been built for this user
+            // yet; reconciliation will take care of it.
+            rollupRepository.applyDelta(shift.getUserId(), shift.getWorkplaceId(), periodDate,
+                    -valueOf(shift.getHours()),
+                    -valueOf(shift.getSalary()),
+                    -valueOf(shift.getOvertimeSalary()),
+                    -valueOf(shift.getTipAmount()),
+                    -1);
+            return;
+        }
+        rollupRepository.upsertDelta(shift.getUserId(), shift.getWorkplaceId(), periodDate,
+                ShiftRollup.periodMonthOf(periodDate), ShiftRollup.periodWeekOf(periodDate),
+                valueOf(shift.getHours()),
+                valueOf(shift.getSalary()),
+                valueOf(shift.getOvertimeSalary()),
+                valueOf(shift.getTipAmount()),
+                1);
+    }
+
+    /**
+     * Recomputes every user's rollup from the shifts table, one transaction per
+     * user. Returns the number of users whose stored rollup had drifted.
+     */
+    public int reconcileAll() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<String> userIds = shiftRepository.findDistinctUserIds();
+        int drifted = 0;
+        for (String userId : userIds) {
+            Boolean userDrifted = tx.execute(status -> reconcileUser(userId));
+            if (Boolean.TRUE.equals(userDrifted)) {
+                drifted++;
+            }
+        }
+        log.info("Rollup reconciliation finished: {} users checked, {} had drifted", userIds.size(), drifted);
+        return drifted;
+    }
+
+    /**
+     * Rebuilds a single user's rollup from their shifts, in place. The user's
+     * rows are locked before the shifts are read, so a shift write either
+     * commits before the read (and is counted) or waits and adds its delta to
+     * the rebuilt rows. Returns true if the stored rows didn't match.
+     */
+    @Transactional
+    public boolean reconcileUser(String userId) {
+        Map<RollupKey, ShiftRollup> stored = new HashMap<>();
+        for (ShiftRollup row : rollupRepository.findAllForUpdate(userId)) {
+            stored.put(new RollupKey(row.getWorkplaceId(), row.getPeriodDate()), row);
+        }
+
+        Map<RollupKey, ShiftRollup> expected = new HashMap<>();
+        shiftHistoryService.forEachShift(userId, null, shift -> accumulate(expected, shift));
+
+        List<ShiftRollup> missing = new ArrayList<>();
+        int driftedRows = 0;
+        for (Map.Entry<RollupKey, ShiftRollup> entry : expected.entrySet()) {
+            ShiftRollup row = stored.remove(entry.getKey());
+            if (matches(entry.getValue(), row)) {
+                continue;
+            }
+            driftedRows++;
+            if (row != null) {
+                copyValues(entry.getValue(), row);
+            } else {
+                missing.add(entry.getValue());
+            }
+        }
+        // Rows with no shifts behind them are emptied, as removals leave them
+        ShiftRollup empty = ShiftRollup.builder().build();
+        for (ShiftRollup row : stored.values()) {
+            if (!matches(empty, row)) {
+                driftedRows++;
+                copyValues(empty, row);
+            }
+        }
+
+        if (driftedRows > 0) {
+            log.warn("Rollup drift for user {}: {} period rows differed, rebuilt", userId, driftedRows);
+            rollupRepository.saveAll(missing);
+        }
+        return driftedRows > 0;
+    }
+
+    private static void copyValues(ShiftRollup from, ShiftRollup to) {
+        to.setHours(from.getHours());
+        to.setSalary(from.getSalary());
+        to.setOvertimeSalary(from.getOvertimeSalary());
+        to.setTips(from.getTips());
+        to.setShiftCount(from.getShiftCount());
+    }
+
+    private void accumulate(Map<RollupKey, ShiftRollup> expected, Shift shift) {
+        accumulate(expected, shift, 1);
+    }
+
+    private void accumulate(Map<RollupKey, ShiftRollup> expected, Shift shift, int sign) {
+        LocalDate periodDate = ShiftRollup.periodDateOf(shift.getDate(), shift.getStartTime());
+        ShiftRollup row = expected.computeIfAbsent(new RollupKey(shift.getWorkplaceId(), periodDate),
+                key -> ShiftRollup.builder()
+                        .userId(shift.getUserId())
+                        .workplaceId(key.workplaceId())
+                        .periodDate(periodDate)
+                        .periodMonth(ShiftRollup.periodMonthOf(periodDate))
+                        .periodWeek(ShiftRollup.periodWeekOf(periodDate))
+                        .build());
+        row.setHours(row.getHours() + sign * valueOf(shift.getHours()));
+        row.setSalary(row.getSalary() + sign * valueOf(shift.getSalary()));
+        row.setOvertimeSalary(row.getOvertimeSalary() + sign * valueOf(shift.getOvertimeSalary()));
+        row.setTips(row.getTips() + sign * valueOf(shift.getTipAmount()));
+        row.setShiftCount(row.getShiftCount() + sign);
+    }
+
+    private boolean matches(ShiftRollup expected, ShiftRollup actual) {
+        return actual != null
+                && Objects.equals(expected.getShiftCount(), actual.getShiftCount())
+                && Math.abs(expected.getHours() - valueOf(actual.getHours())) < DRIFT_TOLERANCE
+                && Math.abs(expected.getSalary() - valueOf(actual.getSalary())) < DRIFT_TOLERANCE
+                && Math.abs(expected.getOvertimeSalary() - valueOf(actual.getOvertimeSalary())) < DRIFT_TOLERANCE
+                && Math.abs(expected.getTips() - valueOf(actual.getTips())) < DRIFT_TOLERANCE;
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private record RollupKey(Long workplaceId, LocalDate periodDate) {
+    }
+}
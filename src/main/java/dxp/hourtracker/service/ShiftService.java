@@ -1,33 +1,131 @@
 package dxp.hourtracker.service;
 
 import dxp.hourtracker.entity.ShiftType;
-import dxp.hourtracker.repository.ShiftTypeRepository;
 import dxp.hourtracker.shift.Shift;
 import dxp.hourtracker.shift.ShiftRepository;
 import dxp.hourtracker.user.UserSettings;
-import dxp.hourtracker.user.UserSettingsRepository;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Timed("hourtracker.shift.service") // per public method: pricing + save of creates, updates, batches
 public class ShiftService {
 
     private final ShiftRepository shiftRepository;
-    private final ShiftTypeRepository shiftTypeRepository;
-    private final UserSettingsRepository userSettingsRepository;
-    private final dxp.hourtracker.workplace.WorkplaceRepository workplaceRepository; // Workplace support
+    private final ShiftTypeRegistry shiftTypeRegistry; // In-memory, no query per lookup
+    private final RateLookupService rateLookupService; // Cached Workplace / UserSettings rates
     private final WageCalculatorService wageCalculator;
+    private final ShiftRollupService shiftRollupService;
+    private final DataVersionService dataVersionService; // ETag stamps for the polled endpoints
+
+    /** Upper bound for one batch request, keeps its transaction short. */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /** Outcome of one payload in {@link #createShifts}: either the saved shift or an error. */
+    public record BatchItemResult(int index, Shift shift, String error) {
+    }
 
     @Transactional
     public Shift createShift(String userId, Map<String, Object> payload) {
+        Shift saved = shiftRepository.save(priceNewShift(userId, payload, new HashSet<>()));
+        shiftRollupService.add(saved);
+        dataVersionService.bump(userId);
+        return saved;
+    }
+
+    /**
+     * Creates many shifts in one transaction. Each payload has the
+     * {@link #createShift} shape; invalid ones are reported per item and don't
+     * stop the rest. Valid shifts are inserted with JDBC batching and the rollup
+     * gets one delta per period row.
+     */
+    @Transactional
+    public List<BatchItemResult> createShifts(String userId, List<Map<String, Object>> payloads) {
+        if (payloads.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " shifts per batch");
+        }
+
+        List<BatchItemResult> results = priceShifts(userId, payloads);
+        List<Shift> priced = new ArrayList<>();
+        for (BatchItemResult result : results) {
+            if (result.shift() != null) {
+                priced.add(result.shift());
+            }
+        }
+
+        List<Shift> saved = saveShifts(userId, priced);
+        int j = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).shift() != null) {
+                results.set(i, new BatchItemResult(i, saved.get(j++), null));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Validates and prices {@link #createShift} payloads without saving
+     * anything. Items carry either the priced, unsaved shift or the error.
+     * Needs no transaction: rates and shift types come from the caches.
+     * Timed here, once per call, rather than on WageCalculatorService, which
+     * runs once per shift and stays unproxied.
+     */
+    @Timed("hourtracker.wage.calculation")
+    public List<BatchItemResult> priceShifts(String userId, List<Map<String, Object>> payloads) {
+        Set<Long> checkedWorkplaces = new HashSet<>(); // ownership checked once per workplace
+        List<BatchItemResult> results = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                results.add(new BatchItemResult(i, priceNewShift(userId, payloads.get(i), checkedWorkplaces), null));
+            } catch (IllegalArgumentException | ClassCastException | DateTimeException e) {
+                results.add(new BatchItemResult(i, null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /** Inserts shifts priced by {@link #priceShifts} (JDBC batches) and updates the rollup. */
+    @Transactional
+    public List<Shift> saveShifts(String userId, List<Shift> priced) {
+        List<Shift> saved = shiftRepository.saveAll(priced);
+        shiftRollupService.addAll(saved);
+        dataVersionService.bump(userId);
+        return saved;
+    }
+
+    /**
+     * Deletes the shifts one CSV import wrote and takes them out of the
+     * rollup. Returns how many were deleted.
+     */
+    @Transactional
+    public int deleteImport(String userId, String importId) {
+        shiftRollupService.removeImport(userId, importId);
+        int deleted = shiftRepository.deleteImported(userId, importId);
+        if (deleted > 0) {
+            dataVersionService.bump(userId);
+        }
+        return deleted;
+    }
+
+    /** Validates a createShift payload and prices it, without saving. */
+    private Shift priceNewShift(String userId, Map<String, Object> payload, Set<Long> checkedWorkplaces) {
         String shiftCode = (String) payload.get("shiftCode");
         String dateRaw = (String) payload.get("date");
         String startTimeStr = (String) payload.get("startTime");
@@ -42,31 +140,23 @@ public class ShiftService {
             workplaceId = n.longValue();
         }
 
-        if (workplaceId != null) {
-            final Long wpId = workplaceId; // effective final for lambda
-            dxp.hourtracker.workplace.Workplace wp = workplaceRepository.findById(wpId)
+        if (workplaceId != null && !checkedWorkplaces.contains(workplaceId)) {
+            dxp.hourtracker.workplace.Workplace wp = rateLookupService.findWorkplace(workplaceId)
                     .orElseThrow(() -> new IllegalArgumentException("Workplace not found"));
             if (!wp.getUserId().equals(userId)) {
                 throw new IllegalArgumentException("Unauthorized workplace access");
             }
+            if (wp.isArchived()) {
+                throw new IllegalArgumentException("Workplace is archived");
+            }
+            checkedWorkplaces.add(workplaceId);
         }
 
-        // Validation: If workplaceId is provided, verify ownership?
-        // saveShiftWithCalculations will fetch and verify.
-
         LocalDate date = LocalDate.parse(dateRaw);
-        ShiftType type;
-        if (workplaceId != null) {
-            type = shiftTypeRepository.findByCodeAndWorkplaceId(shiftCode, workplaceId)
-                    .orElseGet(() -> shiftTypeRepository.findFirstByCodeAndWorkplaceIdIsNull(shiftCode)
-                            .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + shiftCode)));
-        } else {
-            type = shiftTypeRepository.findFirstByCodeAndWorkplaceIdIsNull(shiftCode)
-                    .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + shiftCode));
-        }
-
-        return saveShiftWithCalculations(userId, workplaceId, date, startTimeStr, endTimeStr, type, payload, null);
+        ShiftType type = shiftTypeRegistry.findByCode(workplaceId, shiftCode)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + shiftCode));
 
+        return priceShift(userId, workplaceId, date, startTimeStr, endTimeStr, type, payload, null);
     }
 
     @Transactional
@@ -88,25 +178,15 @@ public class ShiftService {
         String code = (String) payload.get("shiftCode");
         ShiftType type;
         if (code != null) {
-            if (workplaceId != null) {
-                type = shiftTypeRepository.findByCodeAndWorkplaceId(code, workplaceId)
-                        .orElseGet(() -> shiftTypeRepository.findFirstByCodeAndWorkplaceIdIsNull(code)
-                                .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + code)));
-            } else {
-                type = shiftTypeRepository.findFirstByCodeAndWorkplaceIdIsNull(code)
-                        .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + code));
-            }
+            type = shiftTypeRegistry.findByCode(workplaceId, code)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown shift type: " + code));
+        } else if (existing.getShiftTypeId() != null && Objects.equals(workplaceId, existing.getWorkplaceId())) {
+            type = shiftTypeRegistry.findById(workplaceId, existing.getShiftTypeId())
+                    .orElseThrow(() -> new IllegalArgumentException("Shift Type configuration not found"));
         } else {
-            // Fallback: try to find by existing Hebrew name
-            if (workplaceId != null) {
-                type = shiftTypeRepository.findByNameHeAndWorkplaceId(existing.getShiftType(), workplaceId)
-                        .orElseGet(() -> shiftTypeRepository
-                                .findFirstByNameHeAndWorkplaceIdIsNull(existing.getShiftType())
-                                .orElseThrow(() -> new IllegalArgumentException("Shift Type configuration not found")));
-            } else {
-                type = shiftTypeRepository.findFirstByNameHeAndWorkplaceIdIsNull(existing.getShiftType())
-                        .orElseThrow(() -> new IllegalArgumentException("Shift Type configuration not found"));
-            }
+            // Moved to another workplace (or legacy row): use the type with the same name there
+            type = shiftTypeRegistry.findByName(workplaceId, shiftTypeRegistry.displayName(existing))
+                    .orElseThrow(() -> new IllegalArgumentException("Shift Type configuration not found"));
         }
 
         // Parse Date/Time, falling back to existing if null
@@ -116,6 +196,7 @@ public class ShiftService {
         String startTimeStr = (String) payload.getOrDefault("startTime", existing.getStartTime().toString());
         String endTimeStr = (String) payload.getOrDefault("endTime", existing.getEndTime().toString());
 
+        shiftRollupService.remove(existing);
         return saveShiftWithCalculations(userId, workplaceId, date, startTimeStr, endTimeStr, type, payload,
                 existing.getId());
 
@@ -130,20 +211,17 @@ public class ShiftService {
             throw new IllegalArgumentException("Unauthorized");
         }
 
+        shiftRollupService.remove(existing);
+
         // Set end time to NOW
         String nowTime = LocalTime.now().withSecond(0).toString();
         existing.setEndTime(LocalTime.parse(nowTime));
 
         // Find type
-        ShiftType type;
-        if (existing.getWorkplaceId() != null) {
-            type = shiftTypeRepository.findByNameHeAndWorkplaceId(existing.getShiftType(), existing.getWorkplaceId())
-                    .orElseGet(() -> shiftTypeRepository.findFirstByNameHeAndWorkplaceIdIsNull(existing.getShiftType())
-                            .orElseThrow(() -> new IllegalArgumentException("Shift Type not found")));
-        } else {
-            type = shiftTypeRepository.findFirstByNameHeAndWorkplaceIdIsNull(existing.getShiftType())
-                    .orElseThrow(() -> new IllegalArgumentException("Shift Type not found"));
-        }
+        ShiftType type = (existing.getShiftTypeId() != null
+                ? shiftTypeRegistry.findById(existing.getWorkplaceId(), existing.getShiftTypeId())
+                : shiftTypeRegistry.findByName(existing.getWorkplaceId(), existing.getShiftType()))
+                .orElseThrow(() -> new IllegalArgumentException("Shift Type not found"));
 
         // Preserve existing manual overtime if any
         Map<String, Object> payload = Map.of(
@@ -156,10 +234,47 @@ public class ShiftService {
 
     }
 
+    /**
+     * Prices an existing shift again with the rates in effect on its date and
+     * returns the result unsaved. Times, type, overtime hours and tip are
+     * kept; the overtime rate is taken from the workplace again, since that's
+     * one of the rates that may have changed.
+     */
+    public Shift reprice(Shift existing) {
+        ShiftType type = (existing.getShiftTypeId() != null
+                ? shiftTypeRegistry.findById(existing.getWorkplaceId(), existing.getShiftTypeId())
+                : shiftTypeRegistry.findByName(existing.getWorkplaceId(), existing.getShiftType()))
+                .orElseThrow(() -> new IllegalArgumentException("Shift Type not found"));
+        if (existing.getStartTime() == null || existing.getEndTime() == null) {
+            throw new IllegalArgumentException("Shift has no end time");
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        if (existing.getOvertimeHours() != null) {
+            payload.put("overtimeHours", existing.getOvertimeHours());
+        }
+        payload.put("tipAmount", existing.getTipAmount() != null ? existing.getTipAmount() : 0.0);
+
+        return priceShift(existing.getUserId(), existing.getWorkplaceId(), existing.getDate(),
+                existing.getStartTime().toString(), existing.getEndTime().toString(), type, payload, existing.getId());
+    }
+
     private Shift saveShiftWithCalculations(String userId, Long workplaceId, LocalDate date, String startStr,
             String endStr,
             ShiftType type,
             Map<String, Object> payload, Long existingId) {
+        Shift saved = shiftRepository.save(
+                priceShift(userId, workplaceId, date, startStr, endStr, type, payload, existingId));
+        shiftRollupService.add(saved);
+        dataVersionService.bump(userId);
+        return saved;
+    }
+
+    /** Computes hours and pay for a shift and returns it unsaved. */
+    private Shift priceShift(String userId, Long workplaceId, LocalDate date, String startStr,
+            String endStr,
+            ShiftType type,
+            Map<String, Object> payload, Long existingId) {
 
         // 1. Prepare Times
         LocalTime startTime = LocalTime.parse(startStr);
@@ -190,25 +305,28 @@ public class ShiftService {
         Integer shabbatStart = null;
         Integer shabbatEnd = null;
 
-        // Try fetch workplace
+        // Try fetch workplace (cached; createShift has usually just loaded it)
         if (workplaceId != null) {
-            dxp.hourtracker.workplace.Workplace wp = workplaceRepository.findById(workplaceId).orElse(null);
+            dxp.hourtracker.workplace.Workplace wp = rateLookupService.findWorkplace(workplaceId).orElse(null);
             if (wp != null && wp.getUserId().equals(userId)) {
-                if (wp.getHourlyRate() != null)
-                    currentRate = wp.getHourlyRate();
-                if (wp.getOvertimeHourlyRate() != null)
-                    currentOvertimeRate = wp.getOvertimeHourlyRate();
+                // Rates in effect on the shift's date (cached index), else the current ones
+                WorkplaceRate rates = rateLookupService.findRateHistory(workplaceId).at(date)
+                        .orElseGet(() -> WorkplaceRate.of(wp));
+                if (rates.getHourlyRate() != null)
+                    currentRate = rates.getHourlyRate();
+                if (rates.getOvertimeHourlyRate() != null)
+                    currentOvertimeRate = rates.getOvertimeHourlyRate();
 
                 // Get Shabat settings
-                if (wp.getShabatHourlyRate() != null)
-                    currentShabatRate = wp.getShabatHourlyRate();
+                if (rates.getShabatHourlyRate() != null)
+                    currentShabatRate = rates.getShabatHourlyRate();
 
-                shabbatStart = wp.getShabbatStartHour();
-                shabbatEnd = wp.getShabbatEndHour();
+                shabbatStart = rates.getShabbatStartHour();
+                shabbatEnd = rates.getShabbatEndHour();
             }
         } else {
             // Fallback to legacy UserSettings
-            UserSettings settings = userSettingsRepository.findByUserId(userId).orElse(null);
+            UserSettings settings = rateLookupService.findSettings(userId).orElse(null);
             if (settings != null && settings.getHourlyRate() != null && settings.getHourlyRate() > 0) {
                 currentRate = settings.getHourlyRate();
             }
@@ -256,14 +374,15 @@ public class ShiftService {
             tipAmount = shiftRepository.findById(existingId).map(Shift::getTipAmount).orElse(0.0);
         }
 
-        // 9. Save
-        return shiftRepository.save(Shift.builder()
+        // 9. Build (saved by the caller)
+        return Shift.builder()
                 .id(existingId)
                 .userId(userId)
                 .workplaceId(workplaceId)
                 .date(date)
                 .startTime(startTime)
                 .endTime(endTime)
+                .shiftTypeId(type.getId())
                 .shiftType(type.getNameHe())
                 .hours(hours + (overtimeHours != null ? overtimeHours : 0.0)) // Total hours tracked
                 .salary(totalSalary)
@@ -271,6 +390,33 @@ public class ShiftService {
                 .overtimeHourlyRate(overtimeHourlyRate)
                 .overtimeSalary(overtimeSalary)
                 .tipAmount(tipAmount)
-                .build());
+                .build();
+    }
+
+    @Transactional
+    public void deleteShift(Long shiftId, String userId) {
+        Shift existing = shiftRepository.findById(shiftId)
+                .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
+        if (!existing.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Unauthorized");
+        }
+        shiftRollupService.remove(existing);
+        shiftRepository.delete(existing);
+        dataVersionService.bump(userId);
+    }
+
+    @Transactional
+    public Shift addTip(Long shiftId, String userId, double tipAmount) {
+        Shift shift = shiftRepository.findById(shiftId)
+                .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
+        if (!shift.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Unauthorized: this shift does not belong to you");
+        }
+        shiftRollupService.remove(shift);
+        shift.setTipAmount(tipAmount);
+        Shift saved = shiftRepository.save(shift);
+        shiftRollupService.add(saved);
+        dataVersionService.bump(userId);
+        return saved;
     }
 }
\ No newline at end of file
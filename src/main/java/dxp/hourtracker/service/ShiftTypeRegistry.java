@@ -0,0 +1,146 @@
+package dxp.hourtracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.Shift;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory index of shift types per workplace, so resolving a shift's type on
+ * the write path doesn't cost any queries.
+ *
+ * Each workplace gets an immutable snapshot keyed by id, code and Hebrew name.
+ * Lookups fall back to the system defaults (workplaceId IS NULL), like the
+ * repository lookups this replaces. Shift types only change when a template is
+ * assigned or DataInitializer runs; both call {@link #invalidate}.
+ *
+ * Returned instances are shared: read them, don't modify them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShiftTypeRegistry {
+
+    /** Cache key for the system defaults (Caffeine doesn't allow null keys). */
+    private static final long SYSTEM_DEFAULTS = -1L;
+
+    private final ShiftTypeRepository shiftTypeRepository;
+
+    private final Cache<Long, Snapshot> snapshots = Caffeine.newBuilder()
+            .maximumSize(5_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /** Resolves by code for a workplace, falling back to the system default. */
+    public Optional<ShiftType> findByCode(Long workplaceId, String code) {
+        if (workplaceId != null) {
+            ShiftType type = snapshot(workplaceId).byCode().get(code);
+            if (type != null) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.ofNullable(snapshot(null).byCode().get(code));
+    }
+
+    /** Resolves by Hebrew display name for a workplace, falling back to the system default. */
+    public Optional<ShiftType> findByName(Long workplaceId, String nameHe) {
+        if (nameHe == null) {
+            return Optional.empty();
+        }
+        if (workplaceId != null) {
+            ShiftType type = snapshot(workplaceId).byName().get(nameHe);
+            if (type != null) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.ofNullable(snapshot(null).byName().get(nameHe));
+    }
+
+    /**
+     * Resolves by primary key. Shifts normally point at a type of their own
+     * workplace or a system default, so this only hits the database for types
+     * of another workplace (e.g. after shifts were moved).
+     */
+    public Optional<ShiftType> findById(Long workplaceId, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ShiftType type = snapshot(workplaceId).byId().get(id);
+        if (type == null && workplaceId != null) {
+            type = snapshot(null).byId().get(id);
+        }
+        return type != null ? Optional.of(type) : shiftTypeRepository.findById(id);
+    }
+
+    /**
+     * Display name of a shift's type, derived from shiftTypeId. Falls back to the
+     * name stored on the row for legacy shifts the backfill couldn't match.
+     */
+    public String displayName(Shift shift) {
+        return findById(shift.getWorkplaceId(), shift.getShiftTypeId())
+                .map(ShiftType::getNameHe)
+                .orElse(shift.getShiftType());
+    }
+
+    /** All types of a workplace (or the system defaults for null), ordered by sortOrder. */
+    public List<ShiftType> getAll(Long workplaceId) {
+        return snapshot(workplaceId).ordered();
+    }
+
+    /**
+     * Drops the snapshot for a workplace (null = system defaults). Inside a
+     * transaction this waits for the commit, so a concurrent reload can't cache
+     * rows that aren't visible yet.
+     */
+    public void invalidate(Long workplaceId) {
+        long key = workplaceId != null ? workplaceId : SYSTEM_DEFAULTS;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    snapshots.invalidate(key);
+                }
+            });
+        } else {
+            snapshots.invalidate(key);
+        }
+    }
+
+    private Snapshot snapshot(Long workplaceId) {
+        long key = workplaceId != null ? workplaceId : SYSTEM_DEFAULTS;
+        return snapshots.get(key, k -> Snapshot.of(workplaceId != null
+                ? shiftTypeRepository.findAllByWorkplaceIdOrderBySortOrderAsc(workplaceId)
+                : shiftTypeRepository.findAllByWorkplaceIdIsNullOrderBySortOrderAsc()));
+    }
+
+    private record Snapshot(List<ShiftType> ordered, Map<Long, ShiftType> byId,
+            Map<String, ShiftType> byCode, Map<String, ShiftType> byName) {
+
+        static Snapshot of(List<ShiftType> types) {
+            Map<Long, ShiftType> byId = new HashMap<>();
+            Map<String, ShiftType> byCode = new HashMap<>();
+            Map<String, ShiftType> byName = new HashMap<>();
+            for (ShiftType type : types) {
+                byId.put(type.getId(), type);
+                // First one wins, matching the findFirst* lookups this replaces
+                if (type.getCode() != null) {
+                    byCode.putIfAbsent(type.getCode(), type);
+                }
+                if (type.getNameHe() != null) {
+                    byName.putIfAbsent(type.getNameHe(), type);
+                }
+            }
+            return new Snapshot(List.copyOf(types), Map.copyOf(byId), Map.copyOf(byCode), Map.copyOf(byName));
+        }
+    }
+}
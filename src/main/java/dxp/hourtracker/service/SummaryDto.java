@@ -0,0 +1,17 @@
+package dxp.hourtracker.service;
+
+import java.util.List;
+
+/** The /api/summary dashboard. netSalaryBreakdown is null when the tax calculation failed. */
+public record SummaryDto(
+        double monthHours,
+        double weekHours,
+        Double hourlyRate,
+        double expectedMonthSalary,
+        List<ShiftDto> recentShifts,
+        double totalTips,
+        NetSalaryBreakdown netSalaryBreakdown) {
+
+    /** What an anonymous request gets. */
+    public static final SummaryDto EMPTY = new SummaryDto(0, 0, null, 0, List.of(), 0, null);
+}
@@ -0,0 +1,164 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.shift.ShiftTotals;
+import dxp.hourtracker.config.SqlStatementCounter;
+import dxp.hourtracker.user.UserSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the /api/summary dashboard. The settings, totals and recent-shifts
+ * reads don't depend on each other, so they run concurrently and the request
+ * costs roughly the slowest of them instead of their sum.
+ *
+ * The reads share one deadline (hourtracker.summary.subquery-timeout-ms).
+ * Settings fall back to defaults and recent shifts to an empty list; totals
+ * are the point of the dashboard, so a failure there fails the request. The
+ * tax breakdown degrades to null as before.
+ *
+ * Cancelling a future doesn't stop a JDBC call, so each read also runs in a
+ * read-only transaction with the same timeout, which JPA applies to its
+ * queries as jakarta.persistence.query.timeout. A read that outlives the
+ * deadline is cancelled by the driver and gives its connection back.
+ */
+@Service
+@Slf4j
+public class SummaryService {
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftRollupRepository shiftRollupRepository;
+    private final RateLookupService rateLookupService;
+    private final IsraeliTaxCalculatorService taxCalculator;
+    private final ShiftTypeRegistry shiftTypeRegistry;
+    private final MeterRegistry meterRegistry;
+    private final long subqueryTimeoutMs;
+    private final TransactionTemplate readTx;
+
+    // Not a bean: an Executor bean would replace Boot's applicationTaskExecutor for @Async.
+    // Each sub-query holds a connection, so the cap follows the pool size.
+    private final SimpleAsyncTaskExecutor executor;
+
+    public SummaryService(ShiftRepository shiftRepository,
+            ShiftRollupRepository shiftRollupRepository,
+            RateLookupService rateLookupService,
+            IsraeliTaxCalculatorService taxCalculator,
+            ShiftTypeRegistry shiftTypeRegistry,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${hourtracker.summary.subquery-timeout-ms:2000}") long subqueryTimeoutMs,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConcurrency) {
+        this.shiftRepository = shiftRepository;
+        this.shiftRollupRepository = shiftRollupRepository;
+        this.rateLookupService = rateLookupService;
+        this.taxCalculator = taxCalculator;
+        this.shiftTypeRegistry = shiftTypeRegistry;
+        this.meterRegistry = meterRegistry;
+        this.subqueryTimeoutMs = subqueryTimeoutMs;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        // Whole seconds only; the reads start together, so each gets the full budget
+        this.readTx.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(subqueryTimeoutMs + 999)));
+        this.executor = new SimpleAsyncTaskExecutor("summary-");
+        this.executor.setVirtualThreads(true);
+        this.executor.setConcurrencyLimit(maxConcurrency);
+        this.executor.setTaskDecorator(SqlStatementCounter::propagate); // count the fan-out's SQL per request
+    }
+
+    public SummaryDto summarize(String userId, Long workplaceId) {
+        // --- Monthly Calculation ---
+        YearMonth thisMonth = YearMonth.now();
+        LocalDate startOfMonthDate = thisMonth.atDay(1);
+        LocalDate endOfMonthDate = thisMonth.atEndOfMonth();
+
+        // --- Weekly Calculation (Start from most recent Sunday at 06:29) ---
+        LocalDate today = LocalDate.now();
+        LocalDate previousSunday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+
+        // Totals are read from the daily rollup, which already assigns each shift to
+        // its 06:29-based pay period day
+        LocalDate from = previousSunday.isBefore(startOfMonthDate) ? previousSunday : startOfMonthDate;
+        LocalDate to = today.isAfter(endOfMonthDate) ? today : endOfMonthDate;
+
+        // --- Fan out ---
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(subqueryTimeoutMs);
+        CompletableFuture<UserSettings> settingsFuture = submit("settings",
+                () -> rateLookupService.findSettings(userId).orElse(new UserSettings()));
+        CompletableFuture<ShiftTotals> totalsFuture = submit("totals",
+                () -> shiftRollupRepository.sumSummaryTotals(userId, workplaceId, from, to,
+                        startOfMonthDate, endOfMonthDate, previousSunday, today));
+        CompletableFuture<List<Shift>> recentFuture = submit("recent", () -> workplaceId != null
+                ? shiftRepository.findTop5ByUserIdAndWorkplaceIdOrderByDateDesc(userId, workplaceId)
+                : shiftRepository.findTop5ByUserIdOrderByDateDesc(userId));
+
+        ShiftTotals totals = join(totalsFuture, "totals", null, deadline);
+        if (totals == null) {
+            throw new IllegalStateException("Summary totals unavailable");
+        }
+        UserSettings settings = join(settingsFuture, "settings", new UserSettings(), deadline);
+        List<Shift> recentShiftsRaw = join(recentFuture, "recent shifts", List.of(), deadline);
+
+        double monthHours = totals.getMonthHours() != null ? totals.getMonthHours() : 0.0;
+        double expectedSalary = totals.getMonthSalary() != null ? totals.getMonthSalary() : 0.0;
+        double totalTips = totals.getMonthTips() != null ? totals.getMonthTips() : 0.0;
+        double weekHours = totals.getWeekHours() != null ? totals.getWeekHours() : 0.0;
+
+        List<ShiftDto> recent = recentShiftsRaw.stream()
+                .map(s -> ShiftDto.of(s, shiftTypeRegistry.displayName(s)))
+                .toList();
+
+        // --- Net Salary Breakdown (Israeli Tax Calculator 2026) ---
+        NetSalaryBreakdown breakdown;
+        try {
+            breakdown = taxCalculator.calculateNetSalary(expectedSalary, TaxProfile.from(settings, today));
+        } catch (Exception e) {
+            // Don't let tax calculation crash the summary
+            log.warn("Tax breakdown failed for user {}", userId, e);
+            breakdown = null;
+        }
+
+        return new SummaryDto(monthHours, weekHours, settings.getHourlyRate(), expectedSalary, recent, totalTips,
+                breakdown);
+    }
+
+    // Each part is timed on its own (hourtracker.summary.part) so a slow one stands out
+    private <T> CompletableFuture<T> submit(String part, Supplier<T> query) {
+        Timer timer = Timer.builder("hourtracker.summary.part").tag("part", part).register(meterRegistry);
+        return CompletableFuture.supplyAsync(() -> timer.record(() -> readTx.execute(status -> query.get())),
+                executor);
+    }
+
+    // Waits for a sub-query until the shared deadline; on timeout or failure logs and returns the fallback
+    private <T> T join(CompletableFuture<T> future, String name, T fallback, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Summary {} missed the {} ms deadline", name, subqueryTimeoutMs);
+        } catch (ExecutionException e) {
+            log.warn("Summary {} failed", name, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,36 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.user.UserSettings;
+
+import java.time.LocalDate;
+
+/**
+ * The settings that affect a net salary calculation, resolved for a given
+ * date (the ex-soldier benefit depends on the date). Small and immutable so it
+ * can be part of a memo key.
+ */
+public record TaxProfile(
+        boolean paysTax,
+        boolean pensionEnabled,
+        boolean studyFundEnabled,
+        boolean female,
+        boolean soldierBenefit) {
+
+    /** Profile of a user as of a date; missing settings get the entity defaults. */
+    public static TaxProfile from(UserSettings settings, LocalDate asOf) {
+        return of(
+                settings.getPaysTax() != null ? settings.getPaysTax() : true,
+                settings.getPensionEnabled() != null ? settings.getPensionEnabled() : true,
+                settings.getStudyFundEnabled() != null ? settings.getStudyFundEnabled() : false,
+                settings.getIsFemale() != null ? settings.getIsFemale() : false,
+                settings.getIsExSoldier() != null ? settings.getIsExSoldier() : false,
+                settings.getDischargeDate(),
+                asOf);
+    }
+
+    public static TaxProfile of(boolean paysTax, boolean pensionEnabled, boolean studyFundEnabled,
+            boolean isFemale, boolean isExSoldier, LocalDate dischargeDate, LocalDate asOf) {
+        return new TaxProfile(paysTax, pensionEnabled, studyFundEnabled, isFemale,
+                isExSoldier && IsraeliTaxCalculatorService.soldierBenefitApplies(dischargeDate, asOf));
+    }
+}
@@ -1,10 +1,7 @@
 package dxp.hourtracker.service;
 
 import org.springframework.stereotype.Component;
-import java.time.DayOfWeek;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
 
 @Component
 public class WageCalculatorService {
@@ -14,29 +11,41 @@ public class WageCalculatorService {
     private static final int DEFAULT_SHABBAT_START = 15; // Friday 15:00
     private static final int DEFAULT_SHABBAT_END = 5; // Sunday 05:00
 
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final long MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    // 1970-01-02 (epoch day 1) was a Friday; week-relative minutes count from its midnight
+    private static final long FRIDAY_ANCHOR = MINUTES_PER_DAY;
+
     /**
      * Calculates the total base salary for a shift, automatically applying
      * 150% rates to any hours that fall within the Shabbat window.
      */
     public double calculateShiftSalary(LocalDateTime start, LocalDateTime end, double hourlyRate,
             Double customShabbatRate, Integer shabbatStartHour, Integer shabbatEndHour) {
+        return calculateShiftSalary(epochMinute(start), epochMinute(end), hourlyRate,
+                customShabbatRate != null ? customShabbatRate : 0.0,
+                shabbatStartHour != null ? shabbatStartHour : DEFAULT_SHABBAT_START,
+                shabbatEndHour != null ? shabbatEndHour : DEFAULT_SHABBAT_END);
+    }
 
-        int startHour = shabbatStartHour != null ? shabbatStartHour : DEFAULT_SHABBAT_START;
-        int endHour = shabbatEndHour != null ? shabbatEndHour : DEFAULT_SHABBAT_END;
+    /**
+     * Primitive version for bulk recalculation: times are epoch minutes, a
+     * shabbatRate <= 0 means "hourlyRate * 1.5". Allocates nothing.
+     */
+    public double calculateShiftSalary(long startMinute, long endMinute, double hourlyRate,
+            double shabbatRate, int shabbatStartHour, int shabbatEndHour) {
 
         // 1. Calculate Total Minutes
-        long totalMinutes = Duration.between(start, end).toMinutes();
+        long totalMinutes = endMinute - startMinute;
         if (totalMinutes <= 0)
             return 0.0;
 
         // 2. Calculate Shabbat Minutes (The intersection of Shift and Shabbat)
-        long shabbatMinutes = getShabbatOverlapMinutes(start, end, startHour, endHour);
+        long shabbatMinutes = shabbatOverlapMinutes(startMinute, endMinute, shabbatStartHour, shabbatEndHour);
         long regularMinutes = totalMinutes - shabbatMinutes;
 
         // 3. Determine Effective Shabbat Rate
-        double effectiveShabbatRate = (customShabbatRate != null && customShabbatRate > 0)
-                ? customShabbatRate
-                : (hourlyRate * SHABBAT_MULTIPLIER);
+        double effectiveShabbatRate = shabbatRate > 0 ? shabbatRate : hourlyRate * SHABBAT_MULTIPLIER;
 
         // 4. Calculate Final Price
         double regularPay = (regularMinutes / 60.0) * hourlyRate;
@@ -45,34 +54,33 @@ public class WageCalculatorService {
         return regularPay + shabbatPay;
     }
 
-    private long getShabbatOverlapMinutes(LocalDateTime shiftStart, LocalDateTime shiftEnd, int startHour,
-            int endHour) {
-        // Find the "Relevant" Friday for this shift
-        LocalDateTime shabbatStart = getRelevantFriday(shiftStart, startHour, endHour);
-
-        // Shabbat ends Sunday morning at endHour
-        LocalDateTime shabbatEnd = shabbatStart.with(TemporalAdjusters.next(DayOfWeek.SUNDAY))
-                .withHour(endHour).withMinute(0);
-
-        // Calculate Intersection
-        LocalDateTime overlapStart = shiftStart.isAfter(shabbatStart) ? shiftStart : shabbatStart;
-        LocalDateTime overlapEnd = shiftEnd.isBefore(shabbatEnd) ? shiftEnd : shabbatEnd;
-
-        if (overlapStart.isAfter(overlapEnd)) {
-            return 0; // No overlap
+    /**
+     * Minutes of [startMinute, endMinute) that fall inside a Shabbat window
+     * (Friday startHour:00 to Sunday endHour:00), counting every week the span
+     * touches.
+     */
+    public static long shabbatOverlapMinutes(long startMinute, long endMinute, int startHour, int endHour) {
+        if (endMinute <= startMinute) {
+            return 0;
         }
+        long windowStart = startHour * 60L; // minutes after Friday 00:00
+        long windowEnd = 2 * MINUTES_PER_DAY + endHour * 60L; // Sunday endHour:00
+        return shabbatMinutesBefore(endMinute, windowStart, windowEnd)
+                - shabbatMinutesBefore(startMinute, windowStart, windowEnd);
+    }
 
-        return Duration.between(overlapStart, overlapEnd).toMinutes();
+    /** Minutes since 1970-01-01T00:00 of a local date-time (seconds are truncated). */
+    public static long epochMinute(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY + dateTime.toLocalTime().toSecondOfDay() / 60;
     }
 
-    private LocalDateTime getRelevantFriday(LocalDateTime date, int startHour, int endHour) {
-        // If it's Sunday (early morning), the relevant Friday is the previous one.
-        if (date.getDayOfWeek() == DayOfWeek.SUNDAY && date.getHour() < endHour) {
-            return date.with(TemporalAdjusters.previous(DayOfWeek.FRIDAY))
-                    .withHour(startHour).withMinute(0).withSecond(0);
-        }
-        // Otherwise, it's the current/previous Friday
-        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.FRIDAY))
-                .withHour(startHour).withMinute(0).withSecond(0);
+    // Shabbat minutes between the anchor and the given minute: whole weeks contribute
+    // the full window, the partial week whatever part of the window it has reached.
+    private static long shabbatMinutesBefore(long epochMinute, long windowStart, long windowEnd) {
+        long sinceAnchor = epochMinute - FRIDAY_ANCHOR;
+        long weeks = Math.floorDiv(sinceAnchor, MINUTES_PER_WEEK);
+        long intoWeek = Math.floorMod(sinceAnchor, MINUTES_PER_WEEK);
+        long partial = Math.min(Math.max(intoWeek - windowStart, 0), windowEnd - windowStart);
+        return weeks * (windowEnd - windowStart) + partial;
     }
-}
\ No newline at end of file
+}
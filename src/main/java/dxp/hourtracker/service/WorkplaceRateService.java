@@ -0,0 +1,62 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import dxp.hourtracker.workplace.WorkplaceRateRepository;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes the workplace rate history. Callers evict the workplace from
+ * {@link RateLookupService} once these return (after commit).
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkplaceRateService {
+
+    private final WorkplaceRepository workplaceRepository;
+    private final WorkplaceRateRepository workplaceRateRepository;
+
+    /**
+     * Saves the workplace and, if its rates differ from {@code previous},
+     * records the new ones as effective from the given day. History from that
+     * day on is replaced; the range it falls in is cut short at that day.
+     */
+    @Transactional
+    public Workplace save(Workplace workplace, WorkplaceRate previous, LocalDate effectiveFrom) {
+        Workplace saved = workplaceRepository.save(workplace);
+        WorkplaceRate current = WorkplaceRate.of(saved);
+        if (current.sameRatesAs(previous)) {
+            return saved;
+        }
+
+        List<WorkplaceRate> rows = workplaceRateRepository.findByWorkplaceIdOrderByValidFromAsc(saved.getId());
+        if (rows.isEmpty() && effectiveFrom.isAfter(WorkplaceRate.BEGINNING)) {
+            // No history yet: the old rates applied until now
+            previous.setWorkplaceId(saved.getId());
+            previous.setValidFrom(WorkplaceRate.BEGINNING);
+            previous.setValidTo(effectiveFrom);
+            workplaceRateRepository.save(previous);
+        }
+        for (WorkplaceRate row : rows) {
+            if (!row.getValidFrom().isBefore(effectiveFrom)) {
+                workplaceRateRepository.delete(row);
+            } else if (row.getValidTo() == null || row.getValidTo().isAfter(effectiveFrom)) {
+                row.setValidTo(effectiveFrom);
+            }
+        }
+        current.setValidFrom(effectiveFrom);
+        workplaceRateRepository.save(current);
+        return saved;
+    }
+
+    @Transactional
+    public void deleteHistory(Long workplaceId) {
+        workplaceRateRepository.deleteAllForWorkplace(workplaceId);
+    }
+}
@@ -0,0 +1,231 @@
+package dxp.hourtracker.service;
+
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.PeriodTotals;
+import dxp.hourtracker.shift.RepriceJob;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based changes to a user's workplaces: updates that switch the default,
+ * moving shifts between workplaces and removing a workplace together with what hangs
+ * off it (shifts, shift types, rate history, rollup rows).
+ *
+ * Each call is one transaction; the workplace caches are evicted and the
+ * user's data version bumped after it commits.
+ */
+@Service
+@Slf4j
+public class WorkplaceService {
+
+    /** What happens to a deleted workplace's shifts. */
+    public enum DeleteMode {
+        /** Delete them along with the workplace. */
+        CASCADE,
+        /** Move them to another of the user's workplaces, pay unchanged. */
+        REASSIGN,
+        /** Keep the workplace and its shifts, hidden from the workplace list. */
+        ARCHIVE
+    }
+
+    private final WorkplaceRepository workplaceRepository;
+    private final ShiftRepository shiftRepository;
+    private final ShiftRollupRepository rollupRepository;
+    private final ShiftTypeRepository shiftTypeRepository;
+    private final ShiftTypeRegistry shiftTypeRegistry;
+    private final ShiftRollupService shiftRollupService;
+    private final ShiftRepriceService shiftRepriceService;
+    private final WorkplaceRateService workplaceRateService;
+    private final RateLookupService rateLookupService;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate tx;
+
+    public WorkplaceService(WorkplaceRepository workplaceRepository, ShiftRepository shiftRepository,
+            ShiftRollupRepository rollupRepository, ShiftTypeRepository shiftTypeRepository,
+            ShiftTypeRegistry shiftTypeRegistry, ShiftRollupService shiftRollupService,
+            ShiftRepriceService shiftRepriceService, WorkplaceRateService workplaceRateService,
+            RateLookupService rateLookupService, DataVersionService dataVersionService,
+            PlatformTransactionManager transactionManager) {
+        this.workplaceRepository = workplaceRepository;
+        this.shiftRepository = shiftRepository;
+        this.rollupRepository = rollupRepository;
+        this.shiftTypeRepository = shiftTypeRepository;
+        this.shiftTypeRegistry = shiftTypeRegistry;
+        this.shiftRollupService = shiftRollupService;
+        this.shiftRepriceService = shiftRepriceService;
+        this.workplaceRateService = workplaceRateService;
+        this.rateLookupService = rateLookupService;
+        this.dataVersionService = dataVersionService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies a PUT to one of the user's active workplaces. Asking for
+     * {@code default} makes it the user's only default (one UPDATE however
+     * many workplaces they have); that switch, the field changes and the rate
+     * history commit together. Locked workplaces only take rate changes.
+     *
+     * @return the saved workplace, or empty if it isn't the user's or is archived
+     */
+    public Optional<Workplace> update(String userId, Long workplaceId, Workplace updates,
+            LocalDate ratesEffectiveFrom) {
+        List<Long> changed = new ArrayList<>(List.of(workplaceId));
+        Optional<Workplace> saved = tx.execute(status -> workplaceRepository.findById(workplaceId)
+                .filter(w -> w.getUserId().equals(userId) && !w.isArchived())
+                .map(w -> {
+                    WorkplaceRate previousRates = WorkplaceRate.of(w);
+                    if (updates.isDefault() && !w.isDefault()) {
+                        changed.addAll(workplaceRepository.findDefaultIds(userId));
+                        workplaceRepository.setDefault(userId, workplaceId);
+                        w.setDefault(true);
+                    }
+
+                    w.setHourlyRate(updates.getHourlyRate());
+                    w.setOvertimeHourlyRate(updates.getOvertimeHourlyRate());
+                    w.setShabatHourlyRate(updates.getShabatHourlyRate());
+                    if (!w.isLocked()) {
+                        w.setName(updates.getName());
+                        w.setColor(updates.getColor());
+                    }
+                    return workplaceRateService.save(w, previousRates, ratesEffectiveFrom);
+                }));
+        if (saved.isPresent()) {
+            changed.forEach(rateLookupService::evictWorkplace);
+            dataVersionService.bump(userId);
+        }
+        return saved;
+    }
+
+    /**
+     * Removes a workplace. With {@link DeleteMode#REASSIGN} its shifts move to
+     * {@code targetWorkplaceId}, which must be another active workplace of the
+     * same user. If the workplace was the default, the user's oldest remaining
+     * one takes over.
+     *
+     * @throws IllegalArgumentException if the target is missing or invalid
+     */
+    public void delete(String userId, Workplace workplace, DeleteMode mode, Long targetWorkplaceId) {
+        Long id = workplace.getId();
+        boolean wasDefault = workplace.isDefault();
+        if (mode == DeleteMode.REASSIGN) {
+            validateTarget(userId, id, targetWorkplaceId);
+        }
+        if (mode != DeleteMode.ARCHIVE) {
+            // A running chunk holds its shifts' locks; superseding it makes that chunk roll back
+            shiftRepriceService.cancel(id);
+        }
+
+        List<Long> changed = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>(List.of(id));
+            switch (mode) {
+                case CASCADE -> {
+                    int deleted = shiftRepository.deleteAllForWorkplace(userId, id);
+                    rollupRepository.deleteAllForWorkplace(userId, id);
+                    log.info("Deleted workplace {} of user {} with its {} shifts", id, userId, deleted);
+                    remove(id);
+                }
+                case REASSIGN -> {
+                    int moved = shiftRepository.reassignShifts(userId, id, targetWorkplaceId, null, null);
+                    shiftRollupService.moveWorkplace(userId, id, targetWorkplaceId);
+                    log.info("Deleted workplace {} of user {}, moved {} shifts to {}", id, userId, moved,
+                            targetWorkplaceId);
+                    remove(id);
+                }
+                case ARCHIVE -> {
+                    workplace.setArchived(true);
+                    workplace.setDefault(false);
+                    workplaceRepository.save(workplace);
+                }
+            }
+            if (wasDefault) {
+                workplaceRepository.findFirstByUserIdAndArchivedFalseAndIdNotOrderByIdAsc(userId, id)
+                        .ifPresent(next -> {
+                            workplaceRepository.setDefault(userId, next.getId());
+                            ids.add(next.getId());
+                        });
+            }
+            return ids;
+        });
+        changed.forEach(rateLookupService::evictWorkplace);
+        dataVersionService.bump(userId);
+    }
+
+    /**
+     * Moves shifts to another of the user's workplaces in one UPDATE: those of
+     * {@code sourceWorkplaceId}, or the legacy ones without a workplace when
+     * it's null, optionally only those dated in [from, to]. The rollup moves by
+     * the exact difference, summed per day by the database (see
+     * {@link ShiftRollupService#moveShifts}); no shift is loaded.
+     *
+     * Pay is kept unless {@code reprice} is set; then a background job (see
+     * {@link ShiftRepriceService}) reprices the target's shifts from the
+     * earliest moved one on, with the target's rates.
+     *
+     * @throws IllegalArgumentException if the target is missing or invalid
+     */
+    public ReassignResult reassignShifts(String userId, Long sourceWorkplaceId, Long targetWorkplaceId,
+            LocalDate from, LocalDate to, boolean reprice) {
+        validateTarget(userId, sourceWorkplaceId, targetWorkplaceId);
+
+        List<PeriodTotals> totals = new ArrayList<>();
+        Integer moved = tx.execute(status -> {
+            totals.addAll(shiftRollupService.moveShifts(userId, sourceWorkplaceId, targetWorkplaceId, from, to));
+            if (totals.isEmpty()) {
+                return 0;
+            }
+            return shiftRepository.reassignShifts(userId, sourceWorkplaceId, targetWorkplaceId, from, to);
+        });
+        log.info("Moved {} shifts of user {} from workplace {} to {}", moved, userId,
+                sourceWorkplaceId != null ? sourceWorkplaceId : "(none)", targetWorkplaceId);
+        if (moved == 0) {
+            return new ReassignResult(0, null);
+        }
+        dataVersionService.bump(userId);
+
+        RepriceJob job = null;
+        if (reprice) {
+            LocalDate earliest = totals.stream().map(PeriodTotals::getFirstDate).min(LocalDate::compareTo)
+                    .orElseThrow();
+            job = shiftRepriceService.start(userId, targetWorkplaceId, earliest);
+        }
+        return new ReassignResult(moved, job);
+    }
+
+    public record ReassignResult(int moved, RepriceJob repriceJob) {
+    }
+
+    private void validateTarget(String userId, Long sourceId, Long targetWorkplaceId) {
+        if (targetWorkplaceId == null) {
+            throw new IllegalArgumentException("targetWorkplaceId is required to reassign shifts");
+        }
+        if (targetWorkplaceId.equals(sourceId)) {
+            throw new IllegalArgumentException("Shifts can't be reassigned to the workplace they're on");
+        }
+        Workplace target = workplaceRepository.findById(targetWorkplaceId)
+                .filter(w -> w.getUserId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Target workplace not found"));
+        if (target.isArchived()) {
+            throw new IllegalArgumentException("Target workplace is archived");
+        }
+    }
+
+    // The workplace row and everything keyed by its id; shifts and rollup rows are handled by the caller
+    private void remove(Long workplaceId) {
+        shiftTypeRepository.deleteAllForWorkplace(workplaceId);
+        shiftTypeRegistry.invalidate(workplaceId);
+        workplaceRateService.deleteHistory(workplaceId);
+        workplaceRepository.deleteById(workplaceId);
+    }
+}
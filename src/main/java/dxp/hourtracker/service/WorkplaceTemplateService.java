@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dxp.hourtracker.entity.ShiftType;
 import dxp.hourtracker.repository.ShiftTypeRepository;
 import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
 import dxp.hourtracker.workplace.Workplace;
 import dxp.hourtracker.workplace.WorkplaceRepository;
 import jakarta.annotation.PostConstruct;
@@ -19,7 +20,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -30,17 +33,31 @@ public class WorkplaceTemplateService {
     private final WorkplaceRepository workplaceRepository;
     private final ShiftTypeRepository shiftTypeRepository;
     private final ShiftRepository shiftRepository;
+    private final ShiftRollupRepository shiftRollupRepository;
+    private final ShiftTypeRegistry shiftTypeRegistry;
+    private final DataVersionService dataVersionService;
     private final ResourceLoader resourceLoader;
     private final ObjectMapper objectMapper;
 
-    private List<WorkplaceTemplate> templates = new ArrayList<>();
+    // Loaded once; both are immutable, so they're safe to share between requests
+    private List<WorkplaceTemplate> templates = List.of();
+    private Map<String, WorkplaceTemplate> templatesById = Map.of();
 
     @PostConstruct
     public void loadTemplates() {
         try {
             Resource resource = resourceLoader.getResource("classpath:workplaces.json");
-            templates = objectMapper.readValue(resource.getInputStream(), new TypeReference<List<WorkplaceTemplate>>() {
-            });
+            List<WorkplaceTemplate> loaded = objectMapper.readValue(resource.getInputStream(),
+                    new TypeReference<List<WorkplaceTemplate>>() {
+                    });
+            Map<String, WorkplaceTemplate> byId = new LinkedHashMap<>();
+            for (WorkplaceTemplate template : loaded) {
+                if (template.getId() != null) {
+                    byId.putIfAbsent(template.getId(), template); // first one wins, like the old linear search
+                }
+            }
+            templates = List.copyOf(loaded);
+            templatesById = Map.copyOf(byId);
             log.info("Loaded {} workplace templates from JSON", templates.size());
         } catch (IOException e) {
             log.error("Failed to load workplace templates", e);
@@ -52,7 +69,7 @@ public class WorkplaceTemplateService {
     }
 
     public Optional<WorkplaceTemplate> getTemplateById(String id) {
-        return templates.stream().filter(t -> t.getId().equals(id)).findFirst();
+        return Optional.ofNullable(id != null ? templatesById.get(id) : null);
     }
 
     @Transactional
@@ -77,7 +94,8 @@ public class WorkplaceTemplateService {
                     .build();
 
             // If it's the only one, make it default
-            if (workplaceRepository.findByUserId(userId).isEmpty()) {
+            List<Workplace> existing = workplaceRepository.findByUserId(userId);
+            if (existing.stream().allMatch(Workplace::isArchived)) {
                 workplace.setDefault(true);
             }
 
@@ -85,27 +103,23 @@ public class WorkplaceTemplateService {
             workplace = workplaceRepository.save(workplace);
             log.info("Created workplace ID: {} for user {}", workplace.getId(), userId);
 
-            // Clone shift types
+            // Clone shift types: one JDBC batch (ids come from a table generator)
+            List<ShiftType> shiftTypes = new ArrayList<>();
             for (ShiftTypeTemplate stt : template.getShifts()) {
-                try {
-                    log.debug("Creating shift type {} for workplace {}", stt.getCode(), workplace.getId());
-                    ShiftType shiftType = ShiftType.builder()
-                            .code(stt.getCode())
-                            .workplaceId(workplace.getId())
-                            .nameHe(stt.getNameHe())
-                            .defaultStart(parseTime(stt.getDefaultStart()))
-                            .defaultEnd(parseTime(stt.getDefaultEnd()))
-                            .defaultHours(stt.getDefaultHours())
-                            .unpaidBreakMinutes(stt.getUnpaidBreakMinutes())
-                            .sortOrder(stt.getSortOrder())
-                            .build();
-                    shiftTypeRepository.save(shiftType);
-                } catch (Exception e) {
-                    log.error("Failed to save shift type {} for workplace {}: {}", stt.getCode(), workplace.getId(),
-                            e.getMessage());
-                    throw new RuntimeException("Failed to save shift type " + stt.getCode() + ": " + e.getMessage(), e);
-                }
+                shiftTypes.add(ShiftType.builder()
+                        .code(stt.getCode())
+                        .workplaceId(workplace.getId())
+                        .nameHe(stt.getNameHe())
+                        .defaultStart(parseTime(stt.getDefaultStart()))
+                        .defaultEnd(parseTime(stt.getDefaultEnd()))
+                        .defaultHours(stt.getDefaultHours())
+                        .unpaidBreakMinutes(stt.getUnpaidBreakMinutes())
+                        .sortOrder(stt.getSortOrder())
+                        .build());
             }
+            // Flushed here so a failing insert is reported through the catch below
+            shiftTypeRepository.saveAllAndFlush(shiftTypes);
+            shiftTypeRegistry.invalidate(workplace.getId());
 
             // Migrate legacy shifts (where workplaceId is NULL) to this new workplace,
             // BUT ONLY if this is truly the user's first-ever workplace (no other
@@ -116,11 +130,12 @@ public class WorkplaceTemplateService {
                 long nullShiftCount = shiftRepository.countLegacyShiftsForUser(userId);
                 // Only migrate if there are actually legacy null shifts and this is the sole
                 // workplace
-                long totalWorkplaces = workplaceRepository.findByUserId(userId).size(); // includes newly saved one
+                long totalWorkplaces = existing.size() + 1; // includes newly saved one
                 if (nullShiftCount > 0 && totalWorkplaces == 1) {
                     log.info("Migrating {} legacy shifts (workplaceId IS NULL) to new default workplace {}",
                             nullShiftCount, workplace.getId());
                     shiftRepository.updateWorkplaceIdForUser(userId, workplace.getId());
+                    shiftRollupRepository.updateWorkplaceIdForUser(userId, workplace.getId());
                 } else if (nullShiftCount > 0) {
                     log.info("Skipping null-shift migration: user {} already has {} workplaces. " +
                             "Use /api/workplaces/reassign-shifts to manually reassign if needed.",
@@ -128,6 +143,7 @@ public class WorkplaceTemplateService {
                 }
             }
 
+            dataVersionService.bump(userId);
             return workplace;
         } catch (Exception e) {
             log.error("Failed to assign template: " + templateId, e);
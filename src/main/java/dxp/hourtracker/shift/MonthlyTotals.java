@@ -0,0 +1,19 @@
+package dxp.hourtracker.shift;
+
+/**
+ * Per-month totals of a user's rollup rows.
+ * See {@link ShiftRollupRepository#sumMonthlyTotals}.
+ */
+public interface MonthlyTotals {
+
+    /** Pay period month, formatted as yyyy-MM. */
+    String getMonth();
+
+    Double getHours();
+
+    Double getSalary();
+
+    Double getTips();
+
+    Long getShiftCount();
+}
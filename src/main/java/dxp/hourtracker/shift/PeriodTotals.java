@@ -0,0 +1,28 @@
+package dxp.hourtracker.shift;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of a set of shifts per workplace and pay period day.
+ * See {@link ShiftRepository#sumForReassign}.
+ */
+public interface PeriodTotals {
+
+    Long getWorkplaceId();
+
+    /** Pay period day, as {@link ShiftRollup#periodDateOf} assigns it. */
+    LocalDate getPeriodDate();
+
+    /** Earliest shift date in the group. */
+    LocalDate getFirstDate();
+
+    Double getHours();
+
+    Double getSalary();
+
+    Double getOvertimeSalary();
+
+    Double getTips();
+
+    Long getShiftCount();
+}
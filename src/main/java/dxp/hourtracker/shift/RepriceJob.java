@@ -0,0 +1,88 @@
+package dxp.hourtracker.shift;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A background run that recomputes pay for a workplace's shifts from a given
+ * date on, after its rates changed. Progress is committed with every chunk
+ * (the cursor is the last processed (date, id)), so a RUNNING job left over
+ * from a restart resumes where it stopped.
+ */
+@Entity
+@Table(name = "reprice_jobs", indexes = {
+        @Index(name = "idx_reprice_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RepriceJob {
+
+    public enum Status {
+        RUNNING, DONE, FAILED,
+        /** Replaced by a newer job for the same workplace. */
+        SUPERSEDED
+    }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "workplace_id", nullable = false)
+    private Long workplaceId;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "cursor_date", nullable = false)
+    private LocalDate cursorDate;
+
+    @Column(name = "cursor_id", nullable = false)
+    private Long cursorId;
+
+    /** Shifts looked at so far. */
+    @Column(nullable = false)
+    private int processed;
+
+    /** Shifts whose pay actually changed. */
+    @Column(nullable = false)
+    private int changed;
+
+    /** Shifts that couldn't be priced (e.g. their shift type is gone) and were left as they were. */
+    @Column(nullable = false)
+    private int skipped;
+
+    @Column(length = 500)
+    private String message;
+
+    /** Lets a newer job supersede this one without a running chunk overwriting the status. */
+    @Version
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
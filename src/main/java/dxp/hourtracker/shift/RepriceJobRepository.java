@@ -0,0 +1,12 @@
+package dxp.hourtracker.shift;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RepriceJobRepository extends JpaRepository<RepriceJob, String> {
+
+        List<RepriceJob> findByStatus(RepriceJob.Status status);
+
+        List<RepriceJob> findByWorkplaceIdAndStatus(Long workplaceId, RepriceJob.Status status);
+}
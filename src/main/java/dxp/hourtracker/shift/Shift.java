@@ -8,22 +8,38 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "shifts")
+@Table(name = "shifts", indexes = {
+        @Index(name = "idx_shifts_user_workplace_date", columnList = "user_id, workplace_id, date"),
+        @Index(name = "idx_shifts_user_date", columnList = "user_id, date"),
+        @Index(name = "idx_shifts_user_import", columnList = "user_id, import_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Shift {
 
+    /**
+     * Ids come from a pooled table generator (50 per round trip) rather than
+     * IDENTITY, so Hibernate can batch inserts. A new block is fetched on a
+     * second connection, outside the inserting transaction, so a request or
+     * import that inserts shifts can hold two connections at once; the pool
+     * is sized for that (hourtracker.db.connections-per-request and the
+     * import's share of hourtracker.db.background-connections).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "shift_ids")
+    @TableGenerator(name = "shift_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "shifts", allocationSize = 50)
     private Long id;
 
     private String userId;
@@ -37,6 +53,16 @@ public class Shift {
 
     private LocalTime endTime;
 
+    /**
+     * The shift's ShiftType. The display name is derived from it on read.
+     */
+    @Column(name = "shift_type_id")
+    private Long shiftTypeId;
+
+    /**
+     * Hebrew name of the type at the time the shift was saved. Kept as a
+     * fallback for legacy rows the shift_type_id backfill couldn't match.
+     */
     private String shiftType;
 
     private Double hours;
@@ -62,4 +88,11 @@ public class Shift {
      * Optional tip amount.
      */
     private Double tipAmount;
+
+    /**
+     * Id of the CSV import that wrote the shift, null for shifts entered
+     * any other way.
+     */
+    @Column(name = "import_id", length = 64)
+    private String importId;
 }
@@ -3,13 +3,20 @@ package dxp.hourtracker.shift;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import dxp.hourtracker.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 public interface ShiftRepository extends JpaRepository<Shift, Long> {
 
@@ -29,6 +36,50 @@ public interface ShiftRepository extends JpaRepository<Shift, Long> {
         // Top 5 per workplace
         List<Shift> findTop5ByUserIdAndWorkplaceIdOrderByDateDesc(String userId, Long workplaceId);
 
+        // Keyset pagination over the full history, newest first (date, id)
+        @Query("SELECT s FROM Shift s WHERE s.userId = :userId"
+                        + " AND (:workplaceId IS NULL OR s.workplaceId = :workplaceId)"
+                        + " ORDER BY s.date DESC, s.id DESC")
+        List<Shift> findHistoryFirstPage(@Param("userId") String userId, @Param("workplaceId") Long workplaceId,
+                        Pageable page);
+
+        @Query("SELECT s FROM Shift s WHERE s.userId = :userId"
+                        + " AND (:workplaceId IS NULL OR s.workplaceId = :workplaceId)"
+                        + " AND (s.date < :cursorDate OR (s.date = :cursorDate AND s.id < :cursorId))"
+                        + " ORDER BY s.date DESC, s.id DESC")
+        List<Shift> findHistoryPageAfter(@Param("userId") String userId, @Param("workplaceId") Long workplaceId,
+                        @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable page);
+
+        /**
+         * Streams the full history row by row. Must be consumed inside a transaction
+         * and closed afterwards.
+         */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+        @Query("SELECT s FROM Shift s WHERE s.userId = :userId"
+                        + " AND (:workplaceId IS NULL OR s.workplaceId = :workplaceId)"
+                        + " ORDER BY s.date DESC, s.id DESC")
+        Stream<Shift> streamHistory(@Param("userId") String userId, @Param("workplaceId") Long workplaceId);
+
+        /** Shifts dated in [from, to], oldest first, streamed like {@link #streamHistory}. */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+        @Query("SELECT s FROM Shift s WHERE s.userId = :userId"
+                        + " AND (:workplaceId IS NULL OR s.workplaceId = :workplaceId)"
+                        + " AND s.date BETWEEN :from AND :to"
+                        + " ORDER BY s.date ASC, s.id ASC")
+        Stream<Shift> streamRange(@Param("userId") String userId, @Param("workplaceId") Long workplaceId,
+                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+        /**
+         * Next chunk of a workplace's shifts after the (date, id) cursor, oldest
+         * first, locked so a concurrent edit can't be overwritten by repricing.
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT s FROM Shift s WHERE s.userId = :userId AND s.workplaceId = :workplaceId"
+                        + " AND (s.date > :cursorDate OR (s.date = :cursorDate AND s.id > :cursorId))"
+                        + " ORDER BY s.date ASC, s.id ASC")
+        List<Shift> findChunkAfter(@Param("userId") String userId, @Param("workplaceId") Long workplaceId,
+                        @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable page);
+
         List<Shift> findByUserIdAndDateGreaterThanEqualOrderByDateAsc(String userId, LocalDate date);
 
         List<Shift> findByUserIdAndWorkplaceIdAndDateGreaterThanEqualOrderByDateAsc(String userId, Long workplaceId,
@@ -38,6 +89,91 @@ public interface ShiftRepository extends JpaRepository<Shift, Long> {
         @Query("UPDATE Shift s SET s.workplaceId = :workplaceId WHERE s.userId = :userId AND s.workplaceId IS NULL")
         void updateWorkplaceIdForUser(@Param("userId") String userId, @Param("workplaceId") Long workplaceId);
 
+        @Modifying
+        @Query("DELETE FROM Shift s WHERE s.userId = :userId AND s.workplaceId = :workplaceId")
+        int deleteAllForWorkplace(@Param("userId") String userId, @Param("workplaceId") Long workplaceId);
+
+        /**
+         * Moves a user's shifts to another workplace in one statement: those of
+         * {@code sourceId}, or the legacy ones without a workplace when it's
+         * null, optionally only those dated in [from, to]. Each shift's type is
+         * remapped by code to the target's own type, then to the system default;
+         * with neither it's cleared and the stored name is shown instead. Pay is
+         * left as it was.
+         */
+        @Modifying
+        @Query(value = """
+                        UPDATE shifts SET
+                            shift_type_id = COALESCE(
+                                (SELECT MIN(t.id) FROM shift_types t JOIN shift_types o ON o.code = t.code
+                                 WHERE o.id = shifts.shift_type_id AND t.workplace_id = :targetId),
+                                (SELECT MIN(t.id) FROM shift_types t JOIN shift_types o ON o.code = t.code
+                                 WHERE o.id = shifts.shift_type_id AND t.workplace_id IS NULL)),
+                            workplace_id = :targetId
+                        WHERE user_id = :userId
+                          AND ((:sourceId IS NULL AND workplace_id IS NULL) OR workplace_id = :sourceId)
+                          AND (:from IS NULL OR date >= :from)
+                          AND (:to IS NULL OR date <= :to)
+                        """, nativeQuery = true)
+        int reassignShifts(@Param("userId") String userId,
+                        @Param("sourceId") Long sourceId,
+                        @Param("targetId") Long targetId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to);
+
+        /**
+         * Totals of the shifts {@link #reassignShifts} would move, per workplace
+         * and pay period day, in one aggregate. A shift starting before 06:29
+         * belongs to the previous day's period, as in {@link ShiftRollup#periodDateOf}.
+         */
+        @Query(value = """
+                        SELECT workplace_id AS workplaceId,
+                               CASE WHEN start_time IS NULL OR start_time < '06:29:00'
+                                    THEN date - INTERVAL '1' DAY ELSE date END AS periodDate,
+                               MIN(date) AS firstDate,
+                               SUM(hours) AS hours,
+                               SUM(salary) AS salary,
+                               SUM(overtime_salary) AS overtimeSalary,
+                               SUM(tip_amount) AS tips,
+                               COUNT(*) AS shiftCount
+                        FROM shifts
+                        WHERE user_id = :userId
+                          AND ((:sourceId IS NULL AND workplace_id IS NULL) OR workplace_id = :sourceId)
+                          AND (:from IS NULL OR date >= :from)
+                          AND (:to IS NULL OR date <= :to)
+                        GROUP BY workplace_id,
+                                 CASE WHEN start_time IS NULL OR start_time < '06:29:00'
+                                      THEN date - INTERVAL '1' DAY ELSE date END
+                        """, nativeQuery = true)
+        List<PeriodTotals> sumForReassign(@Param("userId") String userId, @Param("sourceId") Long sourceId,
+                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+        /**
+         * Totals of one import's shifts per workplace and pay period day, for
+         * taking them back out of the rollup before {@link #deleteImported}.
+         */
+        @Query(value = """
+                        SELECT workplace_id AS workplaceId,
+                               CASE WHEN start_time IS NULL OR start_time < '06:29:00'
+                                    THEN date - INTERVAL '1' DAY ELSE date END AS periodDate,
+                               MIN(date) AS firstDate,
+                               SUM(hours) AS hours,
+                               SUM(salary) AS salary,
+                               SUM(overtime_salary) AS overtimeSalary,
+                               SUM(tip_amount) AS tips,
+                               COUNT(*) AS shiftCount
+                        FROM shifts
+                        WHERE user_id = :userId AND import_id = :importId
+                        GROUP BY workplace_id,
+                                 CASE WHEN start_time IS NULL OR start_time < '06:29:00'
+                                      THEN date - INTERVAL '1' DAY ELSE date END
+                        """, nativeQuery = true)
+        List<PeriodTotals> sumForImport(@Param("userId") String userId, @Param("importId") String importId);
+
+        @Modifying
+        @Query("DELETE FROM Shift s WHERE s.userId = :userId AND s.importId = :importId")
+        int deleteImported(@Param("userId") String userId, @Param("importId") String importId);
+
         /**
          * Count shifts with a specific (non-null) workplaceId.
          */
@@ -48,4 +184,7 @@ public interface ShiftRepository extends JpaRepository<Shift, Long> {
          */
         @Query("SELECT COUNT(s) FROM Shift s WHERE s.userId = :userId AND s.workplaceId IS NULL")
         long countLegacyShiftsForUser(@Param("userId") String userId);
+
+        @Query("SELECT DISTINCT s.userId FROM Shift s")
+        List<String> findDistinctUserIds();
 }
@@ -0,0 +1,104 @@
+package dxp.hourtracker.shift;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user, per-workplace daily totals, maintained incrementally on every shift
+ * write so that dashboard and tax reads don't need to scan the shifts table.
+ *
+ * Rows are keyed by pay period day: a shift belongs to the day on which its
+ * pay period started, where periods roll over at 06:29 (the same boundary the
+ * dashboard uses for months and weeks). Month and week keys are stored
+ * alongside so both can be summed directly. A shift dated the 1st that starts
+ * before 06:29 therefore counts in the previous month (and one early on a
+ * Sunday in the previous week); the dashboard's month totals used to leave
+ * such a shift out of both months.
+ *
+ * Rows are unique per (user, workplace, period day); the key is on a non-null
+ * copy of workplace_id (V9) so legacy rows are covered too.
+ */
+@Entity
+@Table(name = "shift_rollups", indexes = {
+        @Index(name = "idx_shift_rollups_user_period", columnList = "user_id, period_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftRollup {
+
+    /** Shifts starting before this time belong to the previous period day. */
+    public static final LocalTime PERIOD_BOUNDARY = LocalTime.of(6, 29);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "workplace_id")
+    private Long workplaceId;
+
+    @Column(name = "period_date", nullable = false)
+    private LocalDate periodDate;
+
+    /**
+     * Calendar month of the period day, formatted as yyyy-MM.
+     */
+    @Column(name = "period_month", nullable = false, length = 7)
+    private String periodMonth;
+
+    /**
+     * Sunday that starts the week of the period day.
+     */
+    @Column(name = "period_week", nullable = false)
+    private LocalDate periodWeek;
+
+    @Builder.Default
+    private Double hours = 0.0;
+
+    @Builder.Default
+    private Double salary = 0.0;
+
+    @Builder.Default
+    private Double overtimeSalary = 0.0;
+
+    @Builder.Default
+    private Double tips = 0.0;
+
+    @Builder.Default
+    private Integer shiftCount = 0;
+
+    public static LocalDate periodDateOf(LocalDate date, LocalTime startTime) {
+        LocalDateTime start = LocalDateTime.of(date, startTime != null ? startTime : LocalTime.MIN);
+        return start.minusHours(PERIOD_BOUNDARY.getHour())
+                .minusMinutes(PERIOD_BOUNDARY.getMinute())
+                .toLocalDate();
+    }
+
+    public static String periodMonthOf(LocalDate periodDate) {
+        return YearMonth.from(periodDate).toString();
+    }
+
+    public static LocalDate periodWeekOf(LocalDate periodDate) {
+        return periodDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+    }
+}
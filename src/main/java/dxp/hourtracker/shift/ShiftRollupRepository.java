@@ -0,0 +1,157 @@
+package dxp.hourtracker.shift;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ShiftRollupRepository extends JpaRepository<ShiftRollup, Long> {
+
+        List<ShiftRollup> findAllByUserId(String userId);
+
+        List<ShiftRollup> findAllByUserIdAndWorkplaceId(String userId, Long workplaceId);
+
+        /**
+         * A user's rows between two period days, locked so deltas can be added
+         * in memory without racing concurrent writers.
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT r FROM ShiftRollup r WHERE r.userId = :userId AND r.periodDate BETWEEN :from AND :to")
+        List<ShiftRollup> findForUpdate(@Param("userId") String userId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to);
+
+        /** All of a user's rows, locked so a rebuild can't interleave with shift writes. */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT r FROM ShiftRollup r WHERE r.userId = :userId")
+        List<ShiftRollup> findAllForUpdate(@Param("userId") String userId);
+
+        /**
+         * Adds the given deltas to a row, creating it if it doesn't exist yet, in
+         * one atomic statement: concurrent first writes for a day can't both
+         * insert. Legacy rows (no workplace) are keyed on workplace_key, a
+         * non-null copy of workplace_id (see V9).
+         */
+        @Modifying
+        @Query(value = """
+                        INSERT INTO shift_rollups (user_id, workplace_id, period_date, period_month, period_week,
+                                                   hours, salary, overtime_salary, tips, shift_count)
+                        VALUES (:userId, :workplaceId, :periodDate, :periodMonth, :periodWeek,
+                                :hours, :salary, :overtimeSalary, :tips, :shiftCount)
+                        ON DUPLICATE KEY UPDATE
+                            hours = hours + :hours,
+                            salary = salary + :salary,
+                            overtime_salary = overtime_salary + :overtimeSalary,
+                            tips = tips + :tips,
+                            shift_count = shift_count + :shiftCount
+                        """, nativeQuery = true)
+        void upsertDelta(@Param("userId") String userId,
+                        @Param("workplaceId") Long workplaceId,
+                        @Param("periodDate") LocalDate periodDate,
+                        @Param("periodMonth") String periodMonth,
+                        @Param("periodWeek") LocalDate periodWeek,
+                        @Param("hours") double hours,
+                        @Param("salary") double salary,
+                        @Param("overtimeSalary") double overtimeSalary,
+                        @Param("tips") double tips,
+                        @Param("shiftCount") int shiftCount);
+
+        /**
+         * Adds the given deltas to an existing row in place.
+         * Returns the number of rows touched (0 when the row doesn't exist yet).
+         */
+        @Modifying
+        @Query("""
+                        UPDATE ShiftRollup r
+                        SET r.hours = r.hours + :hours,
+                            r.salary = r.salary + :salary,
+                            r.overtimeSalary = r.overtimeSalary + :overtimeSalary,
+                            r.tips = r.tips + :tips,
+                            r.shiftCount = r.shiftCount + :shiftCount
+                        WHERE r.userId = :userId
+                          AND ((:workplaceId IS NULL AND r.workplaceId IS NULL) OR r.workplaceId = :workplaceId)
+                          AND r.periodDate = :periodDate
+                        """)
+        int applyDelta(@Param("userId") String userId,
+                        @Param("workplaceId") Long workplaceId,
+                        @Param("periodDate") LocalDate periodDate,
+                        @Param("hours") double hours,
+                        @Param("salary") double salary,
+                        @Param("overtimeSalary") double overtimeSalary,
+                        @Param("tips") double tips,
+                        @Param("shiftCount") int shiftCount);
+
+        /**
+         * Month and week dashboard totals, summed over at most ~40 daily rows per
+         * workplace. A null workplaceId aggregates across all of the user's
+         * workplaces.
+         */
+        @Query("""
+                        SELECT COALESCE(SUM(CASE WHEN r.periodDate BETWEEN :monthStart AND :monthEnd
+                                        THEN r.hours ELSE 0.0 END), 0.0) AS monthHours,
+                               COALESCE(SUM(CASE WHEN r.periodDate BETWEEN :monthStart AND :monthEnd
+                                        THEN r.salary ELSE 0.0 END), 0.0) AS monthSalary,
+                               COALESCE(SUM(CASE WHEN r.periodDate BETWEEN :monthStart AND :monthEnd
+                                        THEN r.tips ELSE 0.0 END), 0.0) AS monthTips,
+                               COALESCE(SUM(CASE WHEN r.periodDate BETWEEN :weekStart AND :weekEnd
+                                        THEN r.hours ELSE 0.0 END), 0.0) AS weekHours
+                        FROM ShiftRollup r
+                        WHERE r.userId = :userId
+                          AND (:workplaceId IS NULL OR r.workplaceId = :workplaceId)
+                          AND r.periodDate BETWEEN :from AND :to
+                        """)
+        ShiftTotals sumSummaryTotals(@Param("userId") String userId,
+                        @Param("workplaceId") Long workplaceId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to,
+                        @Param("monthStart") LocalDate monthStart,
+                        @Param("monthEnd") LocalDate monthEnd,
+                        @Param("weekStart") LocalDate weekStart,
+                        @Param("weekEnd") LocalDate weekEnd);
+
+        /**
+         * Totals per pay period month between two period days (one row per month
+         * that has shifts). A null workplaceId aggregates across workplaces.
+         */
+        @Query("""
+                        SELECT r.periodMonth AS month,
+                               SUM(r.hours) AS hours,
+                               SUM(r.salary) AS salary,
+                               SUM(r.tips) AS tips,
+                               SUM(r.shiftCount) AS shiftCount
+                        FROM ShiftRollup r
+                        WHERE r.userId = :userId
+                          AND (:workplaceId IS NULL OR r.workplaceId = :workplaceId)
+                          AND r.periodDate BETWEEN :from AND :to
+                        GROUP BY r.periodMonth
+                        ORDER BY r.periodMonth
+                        """)
+        List<MonthlyTotals> sumMonthlyTotals(@Param("userId") String userId,
+                        @Param("workplaceId") Long workplaceId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to);
+
+        @Modifying
+        @Query("UPDATE ShiftRollup r SET r.workplaceId = :workplaceId WHERE r.userId = :userId AND r.workplaceId IS NULL")
+        void updateWorkplaceIdForUser(@Param("userId") String userId, @Param("workplaceId") Long workplaceId);
+
+        @Modifying
+        @Query("DELETE FROM ShiftRollup r WHERE r.userId = :userId")
+        void deleteAllForUser(@Param("userId") String userId);
+
+        @Modifying
+        @Query("UPDATE ShiftRollup r SET r.workplaceId = :targetId WHERE r.userId = :userId AND r.workplaceId = :sourceId")
+        void moveWorkplace(@Param("userId") String userId,
+                        @Param("sourceId") Long sourceId,
+                        @Param("targetId") Long targetId);
+
+        @Modifying
+        @Query("DELETE FROM ShiftRollup r WHERE r.userId = :userId AND r.workplaceId = :workplaceId")
+        void deleteAllForWorkplace(@Param("userId") String userId, @Param("workplaceId") Long workplaceId);
+}
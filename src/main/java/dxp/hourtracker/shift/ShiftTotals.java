@@ -0,0 +1,16 @@
+package dxp.hourtracker.shift;
+
+/**
+ * Aggregated dashboard totals computed by the database in a single statement.
+ * See {@link ShiftRollupRepository#sumSummaryTotals}.
+ */
+public interface ShiftTotals {
+
+    Double getMonthHours();
+
+    Double getMonthSalary();
+
+    Double getMonthTips();
+
+    Double getWeekHours();
+}
@@ -45,4 +45,7 @@ public class Workplace {
 
     @Builder.Default
     private boolean isDefault = false;
+
+    @Builder.Default
+    private boolean archived = false; // Deleted with mode=archive: kept for history only
 }
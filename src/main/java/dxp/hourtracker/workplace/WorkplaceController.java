@@ -1,26 +1,39 @@
 package dxp.hourtracker.workplace;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import dxp.hourtracker.shift.ShiftRepository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/workplaces")
 @RequiredArgsConstructor
+@Slf4j
 public class WorkplaceController {
 
     private final WorkplaceRepository workplaceRepository;
     private final ShiftRepository shiftRepository;
     private final dxp.hourtracker.service.WorkplaceTemplateService templateService;
+    private final dxp.hourtracker.service.DataVersionService dataVersionService;
+    private final dxp.hourtracker.service.ShiftRepriceService shiftRepriceService;
+    private final dxp.hourtracker.service.WorkplaceService workplaceService;
 
     @GetMapping("/templates")
-    public List<dxp.hourtracker.service.WorkplaceTemplateService.WorkplaceTemplate> getTemplates() {
+    public List<dxp.hourtracker.service.WorkplaceTemplateService.WorkplaceTemplate> getTemplates(
+            WebRequest webRequest) {
+        // Templates are loaded once at startup, so they only change with a restart
+        if (dataVersionService.checkNotModified(webRequest, dataVersionService.bootEtag("templates"))) {
+            return null;
+        }
         return templateService.getTemplates();
     }
 
@@ -36,7 +49,7 @@ public class WorkplaceController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(java.util.Collections.singletonMap("error", e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Assigning template {} to user {} failed", templateId, userId, e);
             String message = e.getMessage();
             if (e.getCause() != null) {
                 message += " [Cause: " + e.getCause().getMessage() + "]";
@@ -53,7 +66,7 @@ public class WorkplaceController {
             return List.of();
 
         String userId = principal.getName();
-        List<Workplace> workplaces = workplaceRepository.findByUserId(userId);
+        List<Workplace> workplaces = workplaceRepository.findByUserIdAndArchivedFalse(userId);
 
         if (workplaces.isEmpty()) {
             // New logic: Don't auto-create legacy "Default".
@@ -74,69 +87,110 @@ public class WorkplaceController {
         throw new UnsupportedOperationException("Custom workplace creation is disabled. Use /select instead.");
     }
 
+    /**
+     * Rate changes apply to shifts from {@code ratesEffectiveFrom} (default
+     * today); earlier shifts keep the rates they were worked under. Existing
+     * shifts are only repriced on request, see {@link #reprice}.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<Workplace> updateWorkplace(
             @AuthenticationPrincipal OAuth2User principal,
             @PathVariable Long id,
-            @RequestBody Workplace updates) {
+            @RequestBody Workplace updates,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ratesEffectiveFrom) {
         if (principal == null)
             return ResponseEntity.status(401).build();
         String userId = principal.getName();
 
-        return workplaceRepository.findById(id)
-                .filter(w -> w.getUserId().equals(userId))
-                .map(w -> {
-                    // Locked workplaces only allow rate updates
-                    if (w.isLocked()) {
-                        w.setHourlyRate(updates.getHourlyRate());
-                        w.setOvertimeHourlyRate(updates.getOvertimeHourlyRate());
-                        w.setShabatHourlyRate(updates.getShabatHourlyRate());
-                    } else {
-                        w.setName(updates.getName());
-                        w.setHourlyRate(updates.getHourlyRate());
-                        w.setOvertimeHourlyRate(updates.getOvertimeHourlyRate());
-                        w.setShabatHourlyRate(updates.getShabatHourlyRate());
-                        w.setColor(updates.getColor());
-                    }
+        return workplaceService.update(userId, id, updates,
+                ratesEffectiveFrom != null ? ratesEffectiveFrom : LocalDate.now())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-                    if (updates.isDefault() && !w.isDefault()) {
-                        unsetOtherDefaults(userId);
-                        w.setDefault(true);
-                    } else if (updates.isDefault()) {
-                        w.setDefault(true);
-                    }
+    /**
+     * {@code mode} decides what happens to the workplace's shifts: cascade
+     * (default) deletes them, reassign moves them to {@code targetWorkplaceId},
+     * archive keeps them and only hides the workplace.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteWorkplace(
+            @AuthenticationPrincipal OAuth2User principal,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "cascade") String mode,
+            @RequestParam(required = false) Long targetWorkplaceId) {
+        if (principal == null)
+            return ResponseEntity.status(401).build();
+        String userId = principal.getName();
 
-                    return ResponseEntity.ok(workplaceRepository.save(w));
+        return workplaceRepository.findById(id)
+                .filter(w -> w.getUserId().equals(userId) && !w.isArchived())
+                .<ResponseEntity<?>>map(w -> {
+                    try {
+                        workplaceService.delete(userId, w,
+                                dxp.hourtracker.service.WorkplaceService.DeleteMode.valueOf(mode.toUpperCase()),
+                                targetWorkplaceId);
+                        return ResponseEntity.ok().build();
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest()
+                                .body(java.util.Collections.singletonMap("error", e.getMessage()));
+                    }
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteWorkplace(
+    /**
+     * Opt-in after a rate change: recomputes the pay of this workplace's shifts
+     * dated {@code from} onwards in the background. Poll
+     * GET /api/workplaces/reprice-jobs/{jobId} for progress.
+     */
+    @PostMapping("/{id}/reprice")
+    public ResponseEntity<dxp.hourtracker.shift.RepriceJob> reprice(
             @AuthenticationPrincipal OAuth2User principal,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
         if (principal == null)
             return ResponseEntity.status(401).build();
         String userId = principal.getName();
 
         return workplaceRepository.findById(id)
                 .filter(w -> w.getUserId().equals(userId))
-                .map(w -> {
-                    // Prevent deleting the only workplace if it's the active one?
-                    // For now, allow deletion but maybe add a guard later.
-                    workplaceRepository.delete(w);
-                    return ResponseEntity.ok().<Void>build();
-                })
+                .map(w -> ResponseEntity.status(org.springframework.http.HttpStatus.ACCEPTED)
+                        .body(shiftRepriceService.start(userId, w.getId(), from)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private void unsetOtherDefaults(String userId) {
-        List<Workplace> workplaces = workplaceRepository.findByUserId(userId);
-        for (Workplace w : workplaces) {
-            if (w.isDefault()) {
-                w.setDefault(false);
-                workplaceRepository.save(w);
-            }
+    /**
+     * Moves shifts to {@code targetWorkplaceId}: those of
+     * {@code sourceWorkplaceId}, or the legacy ones without a workplace if it's
+     * omitted, optionally only those dated in [from, to]. Pay is kept unless
+     * {@code reprice=true}, which starts a reprice job for the target
+     * (returned with the count).
+     */
+    @PostMapping("/reassign-shifts")
+    public ResponseEntity<?> reassignShifts(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam Long targetWorkplaceId,
+            @RequestParam(required = false) Long sourceWorkplaceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean reprice) {
+        if (principal == null)
+            return ResponseEntity.status(401).build();
+        try {
+            return ResponseEntity.ok(workplaceService.reassignShifts(principal.getName(), sourceWorkplaceId,
+                    targetWorkplaceId, from, to, reprice));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Collections.singletonMap("error", e.getMessage()));
         }
     }
+
+    @GetMapping("/reprice-jobs/{jobId}")
+    public ResponseEntity<dxp.hourtracker.shift.RepriceJob> getRepriceJob(
+            @AuthenticationPrincipal OAuth2User principal,
+            @PathVariable String jobId) {
+        if (principal == null)
+            return ResponseEntity.status(401).build();
+        return ResponseEntity.of(shiftRepriceService.find(principal.getName(), jobId));
+    }
 }
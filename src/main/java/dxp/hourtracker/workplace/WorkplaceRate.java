@@ -0,0 +1,79 @@
+package dxp.hourtracker.workplace;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The rates a workplace paid during a date range, so shifts are priced with
+ * the rates in effect on their own date. The workplace itself only holds the
+ * latest ones.
+ */
+@Entity
+@Table(name = "workplace_rates", indexes = {
+        @Index(name = "idx_workplace_rates_workplace", columnList = "workplace_id, valid_from")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkplaceRate {
+
+    /** valid_from of the rows backfilled for workplaces that predate the history. */
+    public static final LocalDate BEGINNING = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "workplace_id", nullable = false)
+    private Long workplaceId;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    /** Exclusive; null while these are the current rates. */
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    private Double hourlyRate;
+
+    private Double overtimeHourlyRate;
+
+    private Double shabatHourlyRate;
+
+    private Integer shabbatStartHour;
+
+    private Integer shabbatEndHour;
+
+    /** The workplace's current rates as an unsaved row with no range yet. */
+    public static WorkplaceRate of(Workplace workplace) {
+        return WorkplaceRate.builder()
+                .workplaceId(workplace.getId())
+                .hourlyRate(workplace.getHourlyRate())
+                .overtimeHourlyRate(workplace.getOvertimeHourlyRate())
+                .shabatHourlyRate(workplace.getShabatHourlyRate())
+                .shabbatStartHour(workplace.getShabbatStartHour())
+                .shabbatEndHour(workplace.getShabbatEndHour())
+                .build();
+    }
+
+    public boolean sameRatesAs(WorkplaceRate other) {
+        return Objects.equals(hourlyRate, other.hourlyRate)
+                && Objects.equals(overtimeHourlyRate, other.overtimeHourlyRate)
+                && Objects.equals(shabatHourlyRate, other.shabatHourlyRate)
+                && Objects.equals(shabbatStartHour, other.shabbatStartHour)
+                && Objects.equals(shabbatEndHour, other.shabbatEndHour);
+    }
+}
@@ -0,0 +1,53 @@
+package dxp.hourtracker.workplace;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable interval index over one workplace's {@link WorkplaceRate} rows:
+ * start days in a sorted array, looked up by binary search. Built once per
+ * workplace and cached, so pricing a shift costs no query.
+ */
+public final class WorkplaceRateHistory {
+
+    public static final WorkplaceRateHistory EMPTY = new WorkplaceRateHistory(List.of());
+
+    private final long[] starts; // valid_from as epoch days, ascending
+    private final long[] ends; // valid_to as epoch days (exclusive), MAX_VALUE while open
+    private final WorkplaceRate[] rates;
+
+    private WorkplaceRateHistory(List<WorkplaceRate> sortedRows) {
+        int n = sortedRows.size();
+        starts = new long[n];
+        ends = new long[n];
+        rates = new WorkplaceRate[n];
+        for (int i = 0; i < n; i++) {
+            WorkplaceRate row = sortedRows.get(i);
+            starts[i] = row.getValidFrom().toEpochDay();
+            ends[i] = row.getValidTo() != null ? row.getValidTo().toEpochDay() : Long.MAX_VALUE;
+            rates[i] = row;
+        }
+    }
+
+    /** Rows must not overlap; they're sorted here. */
+    public static WorkplaceRateHistory of(List<WorkplaceRate> rows) {
+        if (rows.isEmpty()) {
+            return EMPTY;
+        }
+        return new WorkplaceRateHistory(rows.stream()
+                .sorted((a, b) -> a.getValidFrom().compareTo(b.getValidFrom()))
+                .toList());
+    }
+
+    /** The rates in effect on the given day, if the history covers it. */
+    public Optional<WorkplaceRate> at(LocalDate date) {
+        long day = date.toEpochDay();
+        int i = Arrays.binarySearch(starts, day);
+        if (i < 0) {
+            i = -i - 2; // last start before the day
+        }
+        return i >= 0 && day < ends[i] ? Optional.of(rates[i]) : Optional.empty();
+    }
+}
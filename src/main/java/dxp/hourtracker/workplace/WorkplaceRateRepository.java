@@ -0,0 +1,17 @@
+package dxp.hourtracker.workplace;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface WorkplaceRateRepository extends JpaRepository<WorkplaceRate, Long> {
+
+    List<WorkplaceRate> findByWorkplaceIdOrderByValidFromAsc(Long workplaceId);
+
+    @Modifying
+    @Query("DELETE FROM WorkplaceRate r WHERE r.workplaceId = :workplaceId")
+    void deleteAllForWorkplace(@Param("workplaceId") Long workplaceId);
+}
@@ -1,6 +1,9 @@
 package dxp.hourtracker.workplace;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +13,18 @@ import java.util.Optional;
 public interface WorkplaceRepository extends JpaRepository<Workplace, Long> {
     List<Workplace> findByUserId(String userId);
 
+    /** The workplaces a user can still pick and log shifts to. */
+    List<Workplace> findByUserIdAndArchivedFalse(String userId);
+
     Optional<Workplace> findByUserIdAndIsDefaultTrue(String userId);
+
+    Optional<Workplace> findFirstByUserIdAndArchivedFalseAndIdNotOrderByIdAsc(String userId, Long id);
+
+    @Query("SELECT w.id FROM Workplace w WHERE w.userId = :userId AND w.isDefault = true")
+    List<Long> findDefaultIds(@Param("userId") String userId);
+
+    /** Makes one workplace the user's default and clears the flag on all others, in one statement. */
+    @Modifying
+    @Query("UPDATE Workplace w SET w.isDefault = CASE WHEN w.id = :id THEN true ELSE false END WHERE w.userId = :userId")
+    int setDefault(@Param("userId") String userId, @Param("id") Long id);
 }
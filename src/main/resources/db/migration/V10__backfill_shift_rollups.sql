@@ -0,0 +1,38 @@
+-- Startup reconciliation is opt-in, so nothing else fills the rollup for shifts
+-- written before it existed. Rebuild it from the shifts table, with the rules of
+-- ShiftRollup: a shift belongs to the pay period day it started in, and days
+-- roll over at 06:29 (no start time counts as midnight). Weeks start on Sunday.
+
+DELETE FROM shift_rollups;
+
+INSERT INTO shift_rollups (user_id, workplace_id, period_date, period_month, period_week,
+                           hours, salary, overtime_salary, tips, shift_count)
+SELECT user_id,
+       workplace_id,
+       period_date,
+       CONCAT(YEAR(period_date), '-', LPAD(MONTH(period_date), 2, '0')),
+       CASE DAYOFWEEK(period_date)
+           WHEN 1 THEN period_date
+           WHEN 2 THEN period_date - INTERVAL '1' DAY
+           WHEN 3 THEN period_date - INTERVAL '2' DAY
+           WHEN 4 THEN period_date - INTERVAL '3' DAY
+           WHEN 5 THEN period_date - INTERVAL '4' DAY
+           WHEN 6 THEN period_date - INTERVAL '5' DAY
+           ELSE period_date - INTERVAL '6' DAY
+       END,
+       SUM(hours),
+       SUM(salary),
+       SUM(overtime_salary),
+       SUM(tips),
+       COUNT(*)
+FROM (SELECT user_id,
+             workplace_id,
+             CASE WHEN start_time IS NULL OR start_time < '06:29:00'
+                  THEN date - INTERVAL '1' DAY ELSE date END AS period_date,
+             COALESCE(hours, 0) AS hours,
+             COALESCE(salary, 0) AS salary,
+             COALESCE(overtime_salary, 0) AS overtime_salary,
+             COALESCE(tip_amount, 0) AS tips
+      FROM shifts
+      WHERE user_id IS NOT NULL AND date IS NOT NULL) s
+GROUP BY user_id, workplace_id, period_date;
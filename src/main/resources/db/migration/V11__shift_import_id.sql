@@ -0,0 +1,6 @@
+-- Shifts written by a CSV import carry the import's id (a hash of the file), so
+-- an import that fails halfway can be undone, and uploading the same file again
+-- replaces its shifts instead of adding them twice.
+ALTER TABLE shifts ADD COLUMN import_id VARCHAR(64);
+
+CREATE INDEX idx_shifts_user_import ON shifts (user_id, import_id);
@@ -0,0 +1,92 @@
+-- Baseline schema as previously generated by Hibernate.
+-- Existing databases already have these tables, so every statement is a no-op there.
+
+CREATE TABLE IF NOT EXISTS users (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    external_id  VARCHAR(255) NOT NULL,
+    display_name VARCHAR(255),
+    email        VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_external_id UNIQUE (external_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_settings (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255) NOT NULL,
+    hourly_rate          DOUBLE,
+    overtime_hourly_rate DOUBLE,
+    shabat_hourly_rate   DOUBLE,
+    premium_expires_at   DATETIME(6),
+    theme_preference     VARCHAR(255),
+    pays_tax             BOOLEAN,
+    pension_enabled      BOOLEAN,
+    study_fund_enabled   BOOLEAN,
+    is_female            BOOLEAN,
+    is_ex_soldier        BOOLEAN,
+    discharge_date       DATE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_settings_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS workplaces (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255) NOT NULL,
+    name                 VARCHAR(255) NOT NULL,
+    hourly_rate          DOUBLE,
+    overtime_hourly_rate DOUBLE,
+    shabat_hourly_rate   DOUBLE,
+    shabbat_start_hour   INTEGER,
+    shabbat_end_hour     INTEGER,
+    color                VARCHAR(255),
+    template_id          VARCHAR(255),
+    is_locked            BOOLEAN      NOT NULL,
+    is_default           BOOLEAN      NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS shift_types (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    code                 VARCHAR(255) NOT NULL,
+    workplace_id         BIGINT,
+    name_he              VARCHAR(255) NOT NULL,
+    default_start        TIME,
+    default_end          TIME,
+    default_hours        DOUBLE,
+    unpaid_break_minutes INTEGER,
+    sort_order           INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_shift_types_code_workplace UNIQUE (code, workplace_id)
+);
+
+CREATE TABLE IF NOT EXISTS shifts (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255),
+    workplace_id         BIGINT,
+    date                 DATE,
+    start_time           TIME,
+    end_time             TIME,
+    shift_type           VARCHAR(255),
+    hours                DOUBLE,
+    salary               DOUBLE,
+    overtime_hours       DOUBLE,
+    overtime_hourly_rate DOUBLE,
+    overtime_salary      DOUBLE,
+    tip_amount           DOUBLE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS shift_rollups (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id         VARCHAR(255) NOT NULL,
+    workplace_id    BIGINT,
+    period_date     DATE         NOT NULL,
+    period_month    VARCHAR(7)   NOT NULL,
+    period_week     DATE         NOT NULL,
+    hours           DOUBLE,
+    salary          DOUBLE,
+    overtime_salary DOUBLE,
+    tips            DOUBLE,
+    shift_count     INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_shift_rollups_period UNIQUE (user_id, workplace_id, period_date)
+);
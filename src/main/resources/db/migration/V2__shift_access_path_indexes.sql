@@ -0,0 +1,14 @@
+-- Composite indexes for the ShiftRepository / ShiftTypeRepository access paths.
+
+-- Workplace-scoped finders: user + workplace + date range, ordered by date.
+-- Also serves the legacy "workplace_id IS NULL" count.
+CREATE INDEX idx_shifts_user_workplace_date ON shifts (user_id, workplace_id, date);
+
+-- Cross-workplace finders and history paging: user + date range, ordered by date.
+CREATE INDEX idx_shifts_user_date ON shifts (user_id, date);
+
+-- Shift type lists per workplace, ordered by sort_order.
+CREATE INDEX idx_shift_types_workplace_sort ON shift_types (workplace_id, sort_order);
+
+-- Dashboard totals across all of a user's workplaces.
+CREATE INDEX idx_shift_rollups_user_period ON shift_rollups (user_id, period_date);
@@ -0,0 +1,17 @@
+-- Shifts reference their ShiftType by id; the Hebrew name column stays as a
+-- fallback for rows that can't be matched.
+ALTER TABLE shifts ADD COLUMN shift_type_id BIGINT;
+
+-- Backfill: prefer the workplace's own type with that name...
+UPDATE shifts SET shift_type_id = (
+    SELECT MIN(st.id) FROM shift_types st
+    WHERE st.workplace_id = shifts.workplace_id AND st.name_he = shifts.shift_type
+)
+WHERE shift_type_id IS NULL AND workplace_id IS NOT NULL;
+
+-- ...then fall back to the system default (same order ShiftService resolved names in)
+UPDATE shifts SET shift_type_id = (
+    SELECT MIN(st.id) FROM shift_types st
+    WHERE st.workplace_id IS NULL AND st.name_he = shifts.shift_type
+)
+WHERE shift_type_id IS NULL;
@@ -0,0 +1,9 @@
+-- Pooled id generator for shifts (see Shift#id), so inserts can be JDBC-batched.
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+-- Start above every existing id, with at least one allocation block (50) of headroom.
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'shifts', COALESCE(MAX(id), 0) + 100 FROM shifts;
@@ -0,0 +1,22 @@
+-- Background repricing of existing shifts after a workplace's rates change.
+-- The cursor is the last (date, id) that was committed, so a job picks up
+-- where it stopped after a restart.
+CREATE TABLE reprice_jobs (
+    id           VARCHAR(36)  NOT NULL,
+    user_id      VARCHAR(255) NOT NULL,
+    workplace_id BIGINT       NOT NULL,
+    from_date    DATE         NOT NULL,
+    status       VARCHAR(16)  NOT NULL,
+    cursor_date  DATE         NOT NULL,
+    cursor_id    BIGINT       NOT NULL,
+    processed    INTEGER      NOT NULL,
+    changed      INTEGER      NOT NULL,
+    skipped      INTEGER      NOT NULL,
+    message      VARCHAR(500),
+    created_at   DATETIME(6)  NOT NULL,
+    updated_at   DATETIME(6)  NOT NULL,
+    version      BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_reprice_jobs_status ON reprice_jobs (status);
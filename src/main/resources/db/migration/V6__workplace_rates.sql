@@ -0,0 +1,23 @@
+-- Rate history per workplace. A row applies to shifts dated in
+-- [valid_from, valid_to); valid_to is NULL for the rates in effect now.
+CREATE TABLE workplace_rates (
+    id                   BIGINT  NOT NULL AUTO_INCREMENT,
+    workplace_id         BIGINT  NOT NULL,
+    valid_from           DATE    NOT NULL,
+    valid_to             DATE,
+    hourly_rate          DOUBLE,
+    overtime_hourly_rate DOUBLE,
+    shabat_hourly_rate   DOUBLE,
+    shabbat_start_hour   INTEGER,
+    shabbat_end_hour     INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_workplace_rates_workplace ON workplace_rates (workplace_id, valid_from);
+
+-- Existing workplaces: their current rates, as if they had always applied
+INSERT INTO workplace_rates (workplace_id, valid_from, valid_to, hourly_rate, overtime_hourly_rate,
+                             shabat_hourly_rate, shabbat_start_hour, shabbat_end_hour)
+SELECT id, DATE '1970-01-01', NULL, hourly_rate, overtime_hourly_rate, shabat_hourly_rate,
+       shabbat_start_hour, shabbat_end_hour
+FROM workplaces;
@@ -0,0 +1,3 @@
+-- Archived workplaces keep their shifts for history but are hidden from the
+-- workplace list and can't take new shifts.
+ALTER TABLE workplaces ADD COLUMN archived BOOLEAN NOT NULL DEFAULT FALSE;
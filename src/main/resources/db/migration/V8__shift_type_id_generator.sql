@@ -0,0 +1,4 @@
+-- Pooled id generator for shift types too (see ShiftType#id), so the types a
+-- template clones can be inserted in one JDBC batch.
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'shift_types', COALESCE(MAX(id), 0) + 100 FROM shift_types;
@@ -0,0 +1,41 @@
+-- The rollup's unique key didn't cover legacy rows: workplace_id is NULL for
+-- them and UNIQUE doesn't compare NULLs, so two concurrent first writes for a
+-- day could both insert a row. Key on a non-null copy of the column instead,
+-- so rows can be upserted with INSERT ... ON DUPLICATE KEY UPDATE.
+
+-- Fold any duplicated legacy days into their oldest row first
+UPDATE shift_rollups SET
+    hours = (SELECT d.hours FROM (
+        SELECT user_id, period_date, SUM(hours) AS hours FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) d
+        WHERE d.user_id = shift_rollups.user_id AND d.period_date = shift_rollups.period_date),
+    salary = (SELECT d.salary FROM (
+        SELECT user_id, period_date, SUM(salary) AS salary FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) d
+        WHERE d.user_id = shift_rollups.user_id AND d.period_date = shift_rollups.period_date),
+    overtime_salary = (SELECT d.overtime_salary FROM (
+        SELECT user_id, period_date, SUM(overtime_salary) AS overtime_salary FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) d
+        WHERE d.user_id = shift_rollups.user_id AND d.period_date = shift_rollups.period_date),
+    tips = (SELECT d.tips FROM (
+        SELECT user_id, period_date, SUM(tips) AS tips FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) d
+        WHERE d.user_id = shift_rollups.user_id AND d.period_date = shift_rollups.period_date),
+    shift_count = (SELECT d.shift_count FROM (
+        SELECT user_id, period_date, SUM(shift_count) AS shift_count FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) d
+        WHERE d.user_id = shift_rollups.user_id AND d.period_date = shift_rollups.period_date)
+WHERE workplace_id IS NULL
+  AND id IN (SELECT k.id FROM (
+        SELECT MIN(id) AS id FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date HAVING COUNT(*) > 1) k);
+
+DELETE FROM shift_rollups
+WHERE workplace_id IS NULL
+  AND id NOT IN (SELECT k.id FROM (
+        SELECT MIN(id) AS id FROM shift_rollups
+        WHERE workplace_id IS NULL GROUP BY user_id, period_date) k);
+
+ALTER TABLE shift_rollups ADD COLUMN workplace_key BIGINT GENERATED ALWAYS AS (COALESCE(workplace_id, 0));
+ALTER TABLE shift_rollups DROP CONSTRAINT uk_shift_rollups_period;
+ALTER TABLE shift_rollups ADD CONSTRAINT uk_shift_rollups_period UNIQUE (user_id, workplace_key, period_date);
@@ -0,0 +1,99 @@
+package dxp.hourtracker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The tests' H2 driver (jdbc:h2upsert:...), which covers one gap in H2's MySQL
+ * mode so the repositories' SQL can stay plain MySQL.
+ *
+ * H2 runs INSERT ... ON DUPLICATE KEY UPDATE as an UPDATE keyed on the unique
+ * key columns the INSERT lists. The shift_rollups key is on the generated
+ * workplace_key (V9), which no INSERT lists, so on H2 the update would also
+ * reach that day's rows of every other workplace. Each "col = col + ?" of such
+ * an upsert is limited to the colliding workplace's row before H2 sees it;
+ * MySQL only ever updates that row.
+ */
+public class H2UpsertDriver implements Driver {
+
+    private static final String PREFIX = "jdbc:h2upsert:";
+    private static final String UPSERT = "ON DUPLICATE KEY UPDATE";
+    private static final Pattern INCREMENT = Pattern.compile("(\\w+)\\s*=\\s*\\1\\s*\\+\\s*\\?");
+
+    static {
+        try {
+            DriverManager.registerDriver(new H2UpsertDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static String rewrite(String sql) {
+        int upsert = sql.indexOf(UPSERT);
+        if (upsert < 0 || !sql.contains("shift_rollups")) {
+            return sql;
+        }
+        Matcher m = INCREMENT.matcher(sql.substring(upsert));
+        return sql.substring(0, upsert) + m.replaceAll(
+                "$1 = CASE WHEN workplace_key = COALESCE(VALUES(workplace_id), 0) THEN $1 + ? ELSE $1 END");
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Connection connection = DriverManager.getConnection("jdbc:h2:" + url.substring(PREFIX.length()), info);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                        args[0] = rewrite(sql);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,66 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dxp.hourtracker.service.DataVersionService;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2upsert:mem:conditional-get;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "hourtracker.rollup.reconcile-on-startup=false" })
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    private static final String USER = "etag-user";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url).with(oauth2Login().attributes(a -> a.putAll(Map.of("sub", USER)))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+    private int statusWith(String url, String etag) throws Exception {
+        return mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)
+                .with(oauth2Login().attributes(a -> a.putAll(Map.of("sub", USER)))))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    void unchangedDataAnswers304UntilBumped() throws Exception {
+        for (String url : new String[] { "/api/summary", "/api/history", "/api/shift-types" }) {
+            String etag = etagOf(url);
+            assertThat(statusWith(url, etag)).as(url).isEqualTo(304);
+
+            dataVersionService.bump(USER);
+            assertThat(statusWith(url, etag)).as(url).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void templatesOnlyChangeWithRestart() throws Exception {
+        String etag = etagOf("/api/workplaces/templates");
+        dataVersionService.bump(USER);
+        assertThat(statusWith("/api/workplaces/templates", etag)).isEqualTo(304);
+    }
+}
@@ -0,0 +1,148 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+
+/**
+ * /api/history paging and /api/history/stream, end to end through the
+ * controller and its JSON.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2upsert:mem:history-api;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" })
+@AutoConfigureMockMvc
+class HistoryApiTest {
+
+    private static final String USER = "history-user";
+    private static final int SHIFTS = 520;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        List<Shift> shifts = new ArrayList<>();
+        for (int i = 0; i < SHIFTS; i++) {
+            shifts.add(Shift.builder()
+                    .userId(USER)
+                    .workplaceId(1L)
+                    .date(FIRST_DAY.plusDays(i / 4)) // four shifts a day: pages end mid-day
+                    .startTime(LocalTime.of(7, 0))
+                    .endTime(LocalTime.of(15, 0))
+                    .hours(8.0)
+                    .salary(400.0)
+                    .build());
+        }
+        shiftRepository.saveAll(shifts);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        shiftRepository.deleteAll();
+    }
+
+    private MockHttpServletRequestBuilder asUser(MockHttpServletRequestBuilder request) {
+        return request.with(oauth2Login().attributes(a -> a.putAll(Map.of("sub", USER))));
+    }
+
+    private JsonNode history(String query) throws Exception {
+        String body = mockMvc.perform(asUser(get("/api/history" + query)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    void cursorWalksTheWholeHistoryNewestFirst() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        JsonNode page = history("?limit=7");
+        int pages = 1;
+        while (true) {
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(7);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            JsonNode cursor = page.get("nextCursor");
+            if (cursor == null || cursor.isNull()) {
+                break;
+            }
+            page = history("?limit=7&cursorDate=" + cursor.get("cursorDate").asText()
+                    + "&cursorId=" + cursor.get("cursorId").asLong());
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo((SHIFTS + 6) / 7);
+        assertThat(new HashSet<>(ids)).hasSize(SHIFTS);
+        assertThat(ids).containsExactlyElementsOf(shiftRepository.findAll().stream()
+                .sorted((a, b) -> a.getDate().equals(b.getDate())
+                        ? b.getId().compareTo(a.getId())
+                        : b.getDate().compareTo(a.getDate()))
+                .map(Shift::getId)
+                .toList());
+    }
+
+    @Test
+    void limitIsCappedAndDefaulted() throws Exception {
+        JsonNode capped = history("?limit=5000");
+        assertThat(capped.get("items")).hasSize(500);
+        assertThat(capped.get("nextCursor").isNull()).isFalse();
+
+        assertThat(history("").get("items")).hasSize(100);
+        assertThat(history("?limit=0").get("items")).hasSize(1);
+    }
+
+    @Test
+    void streamWritesEveryShiftAsOneJsonLine() throws Exception {
+        MvcResult started = mockMvc.perform(asUser(get("/api/history/stream")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(SHIFTS);
+        Set<Long> ids = new HashSet<>();
+        LocalDate previous = null;
+        for (String line : lines) {
+            JsonNode shift = objectMapper.readTree(line);
+            ids.add(shift.get("id").asLong());
+            LocalDate date = LocalDate.parse(shift.get("date").asText());
+            assertThat(previous == null || !date.isAfter(previous)).isTrue();
+            previous = date;
+        }
+        assertThat(ids).hasSize(SHIFTS);
+    }
+}
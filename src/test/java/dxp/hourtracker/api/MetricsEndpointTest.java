@@ -0,0 +1,54 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2upsert:mem:metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "hourtracker.rollup.reconcile-on-startup=false" })
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusScrapeShowsSummaryTimingsAndSqlPerRequest() throws Exception {
+        mockMvc.perform(get("/api/summary")
+                .with(oauth2Login().attributes(a -> a.putAll(Map.of("sub", "metrics-user")))))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("hourtracker_summary_part_seconds_count{application=\"hourtracker\",part=\"totals\"")
+                .contains("hourtracker_tax_calculation_seconds_count")
+                .containsPattern("spring_data_repository_invocations_seconds_count\\{.*method=\"sumSummaryTotals\"")
+                .contains("hibernate_statements_total")
+                .containsPattern("hourtracker_http_sql_statements_count\\{.*uri=\"/api/summary\"");
+        // settings, totals and recent shifts all ran on the summary executor and still count
+        assertThat(sqlStatementsFor(scrape, "/api/summary")).isGreaterThanOrEqualTo(3);
+    }
+
+    private static double sqlStatementsFor(String scrape, String uri) {
+        return scrape.lines()
+                .filter(line -> line.startsWith("hourtracker_http_sql_statements_sum")
+                        && line.contains("uri=\"" + uri + "\""))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .findFirst().orElse(0);
+    }
+}
@@ -0,0 +1,297 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.OAuth2LoginRequestPostProcessor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dxp.hourtracker.entity.User;
+import dxp.hourtracker.repository.UserRepository;
+import dxp.hourtracker.service.RateLookupService;
+import dxp.hourtracker.service.ShiftRollupService;
+import dxp.hourtracker.service.ShiftService;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.user.UserSettings;
+import dxp.hourtracker.user.UserSettingsRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRateRepository;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * SQL statement budgets per endpoint. Seeds a user with several workplaces and
+ * a few hundred shifts, calls each endpoint of UserApiController,
+ * ShiftController and WorkplaceController, and fails if a request runs more
+ * statements than its budget. Statements are counted at the JDBC level (a
+ * JDBC batch counts once), so an N+1 or a per-row save shows up as soon as
+ * it's introduced.
+ *
+ * Budgets don't depend on the amount of seeded data; when a change lowers a
+ * count, lower the budget with it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2upsert:mem:query-budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "hourtracker.rollup.reconcile-on-startup=false" })
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final String USER = "budget-user";
+    private static final int SHIFTS = 300;
+    private static final int WORKPLACES = 3;
+
+    /** SQL of every statement since the last reset, from any thread. */
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        @Bean
+        static BeanPostProcessor countingDataSourceWrapper() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("query-budget")
+                            .listener(new QueryExecutionListener() {
+                                @Override
+                                public void beforeQuery(net.ttddyy.dsproxy.ExecutionInfo execInfo,
+                                        List<net.ttddyy.dsproxy.QueryInfo> queryInfoList) {
+                                }
+
+                                @Override
+                                public void afterQuery(net.ttddyy.dsproxy.ExecutionInfo execInfo,
+                                        List<net.ttddyy.dsproxy.QueryInfo> queryInfoList) {
+                                    STATEMENTS.add(queryInfoList.get(0).getQuery());
+                                }
+                            })
+                            .build();
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSettingsRepository userSettingsRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    @Autowired
+    private WorkplaceRateRepository workplaceRateRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @Autowired
+    private RateLookupService rateLookupService;
+
+    private final List<Long> workplaceIds = new ArrayList<>();
+    private final List<String> overBudget = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        userRepository.save(User.builder().externalId(USER).displayName("Budget").email("b@example.com").build());
+        UserSettings settings = new UserSettings();
+        settings.setUserId(USER);
+        settings.setHourlyRate(50.0);
+        userSettingsRepository.save(settings);
+
+        for (int w = 0; w < WORKPLACES; w++) {
+            workplaceIds.add(workplaceRepository.save(Workplace.builder().userId(USER).name("Workplace " + w)
+                    .hourlyRate(50.0 + w).isDefault(w == 0).build()).getId());
+        }
+        List<Shift> shifts = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < SHIFTS; i++) {
+            // Mostly past shifts, a few upcoming ones
+            shifts.add(Shift.builder().userId(USER).workplaceId(workplaceIds.get(i % WORKPLACES))
+                    .date(today.minusDays(SHIFTS - 10 - i)).startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0))
+                    .shiftType("משמרת בוקר").hours(8.0).salary(400.0).overtimeSalary(0.0).tipAmount(0.0).build());
+        }
+        shiftRepository.saveAll(shifts);
+        rollupService.reconcileUser(USER);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        workplaceRateRepository.deleteAll();
+        workplaceRepository.deleteAll();
+        userSettingsRepository.deleteAll();
+        userRepository.deleteAll();
+        workplaceIds.forEach(rateLookupService::evictWorkplace);
+        rateLookupService.evictSettings(USER);
+        workplaceIds.clear();
+    }
+
+    private static OAuth2LoginRequestPostProcessor user() {
+        return oauth2Login().attributes(a -> a.putAll(Map.of("sub", USER, "name", "Budget")));
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    /** Runs the request and records it if it used more than {@code budget} statements. */
+    private MvcResult within(int budget, String name, MockHttpServletRequestBuilder request) throws Exception {
+        STATEMENTS.clear();
+        MvcResult result = mockMvc.perform(request.with(user())).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).as(name).isLessThan(400);
+        List<String> statements = List.copyOf(STATEMENTS);
+        if (statements.size() > budget) {
+            overBudget.add(name + ": " + statements.size() + " statements, budget " + budget + "\n  "
+                    + String.join("\n  ", statements));
+        }
+        return result;
+    }
+
+    private void assertAllWithinBudget() {
+        assertThat(overBudget).as("endpoints over their SQL budget").isEmpty();
+    }
+
+    private Long anyShiftId(int workplaceIndex) {
+        return shiftRepository.findTop5ByUserIdAndWorkplaceIdOrderByDateDesc(USER, workplaceIds.get(workplaceIndex))
+                .get(0).getId();
+    }
+
+    @Test
+    void userApiReads() throws Exception {
+        within(2, "GET /api/me", get("/api/me"));
+        within(3, "GET /api/summary", get("/api/summary"));
+        within(2, "GET /api/summary?workplaceId", get("/api/summary")
+                .param("workplaceId", workplaceIds.get(0).toString()));
+        within(1, "GET /api/shifts/upcoming", get("/api/shifts/upcoming"));
+        within(1, "GET /api/settings", get("/api/settings"));
+        within(1, "GET /api/history", get("/api/history"));
+        within(1, "GET /api/history?year&month", get("/api/history")
+                .param("year", String.valueOf(LocalDate.now().getYear()))
+                .param("month", String.valueOf(LocalDate.now().getMonthValue())));
+        within(1, "GET /api/history/stream", get("/api/history/stream"));
+        assertAllWithinBudget();
+    }
+
+    @Test
+    void userApiWrites() throws Exception {
+        within(2, "POST /api/settings", post("/api/settings").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("hourlyRate", 55.0, "themePreference", "dark"))));
+        within(2, "POST /api/me/display-name", post("/api/me/display-name").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("displayName", "Renamed"))));
+        assertAllWithinBudget();
+    }
+
+    @Test
+    void shiftReadsAndWrites() throws Exception {
+        Long workplaceId = workplaceIds.get(0);
+        within(1, "GET /api/shift-types", get("/api/shift-types").param("workplaceId", workplaceId.toString()));
+
+        // First write after startup: also loads the workplace, the global shift types and the rate
+        // history into their caches, and takes a block of ids from the table generator
+        within(8, "POST /api/shifts", post("/api/shifts").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("shiftCode", "MORNING", "date", LocalDate.now().toString(),
+                        "startTime", "07:00", "endTime", "15:00", "workplaceId", workplaceId))));
+
+        // Budget doesn't grow with the batch: JDBC-batched inserts, one rollup delta per day
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(Map.of("shiftCode", "EVENING", "date", LocalDate.now().plusDays(1).toString(),
+                    "startTime", "15:00", "endTime", "23:00", "workplaceId", workplaceId));
+        }
+        within(4, "POST /api/shifts/batch", post("/api/shifts/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(json(batch)));
+
+        List<Map<String, Object>> oversized = new ArrayList<>();
+        for (int i = 0; i <= ShiftService.MAX_BATCH_SIZE; i++) {
+            oversized.add(batch.get(0));
+        }
+        assertThat(mockMvc.perform(post("/api/shifts/batch").with(user()).contentType(MediaType.APPLICATION_JSON)
+                .content(json(oversized))).andReturn().getResponse().getStatus()).isEqualTo(400);
+
+        Long shiftId = anyShiftId(1);
+        within(7, "PUT /api/shifts/{id}", put("/api/shifts/" + shiftId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("startTime", "08:00", "endTime", "16:00"))));
+        within(4, "POST /api/shifts/{id}/tip", post("/api/shifts/" + shiftId + "/tip")
+                .contentType(MediaType.APPLICATION_JSON).content(json(Map.of("tipAmount", 25.0))));
+        within(4, "POST /api/shifts/{id}/end", post("/api/shifts/" + shiftId + "/end"));
+        within(3, "DELETE /api/shifts/{id}", delete("/api/shifts/" + shiftId));
+        assertAllWithinBudget();
+    }
+
+    @Test
+    void workplaceReadsAndWrites() throws Exception {
+        within(1, "GET /api/workplaces", get("/api/workplaces"));
+        within(0, "GET /api/workplaces/templates", get("/api/workplaces/templates"));
+
+        // Makes another workplace the default: one UPDATE clears the others, however many there are
+        Long second = workplaceIds.get(1);
+        within(7, "PUT /api/workplaces/{id}", put("/api/workplaces/" + second)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("name", "Renamed", "hourlyRate", 60.0, "default", true))));
+
+        // One batched insert for the template's shift types, whatever their number; the other 2 are the id
+        // generator handing out a new block of 50, when it has to
+        within(5, "POST /api/workplaces/select", post("/api/workplaces/select").param("templateId", "retail"));
+        // Repoints the rollup rows of days the target has none for: no INSERT per day
+        within(6, "POST /api/workplaces/reassign-shifts", post("/api/workplaces/reassign-shifts")
+                .param("sourceWorkplaceId", workplaceIds.get(2).toString())
+                .param("targetWorkplaceId", second.toString()));
+        // Set-based whatever the number of shifts: one statement per table
+        within(7, "DELETE /api/workplaces/{id}", delete("/api/workplaces/" + workplaceIds.get(2)));
+        within(10, "DELETE /api/workplaces/{id}?mode=reassign", delete("/api/workplaces/" + workplaceIds.get(0))
+                .param("mode", "reassign").param("targetWorkplaceId", second.toString()));
+        assertAllWithinBudget();
+    }
+}
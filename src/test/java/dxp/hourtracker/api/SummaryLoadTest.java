@@ -0,0 +1,203 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Session;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import dxp.hourtracker.service.ShiftRollupService;
+
+/**
+ * 500 concurrent dashboard users hitting GET /api/summary over HTTP on a real
+ * Tomcat (random port), once with the default 200-thread platform pool and
+ * once with spring.threads.virtual.enabled. The client is the same in both
+ * runs (one virtual thread per user), so only the server's threading differs.
+ * Users are logged in by seeding Tomcat sessions with their security context.
+ * Prints throughput and latency percentiles; only checks that nothing but
+ * 200/503 comes back.
+ *
+ * Not part of the normal build: mvn test -Dtest=SummaryLoadTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class SummaryLoadTest {
+
+    private static final int USERS = 500;
+    private static final int REQUESTS_PER_USER = 10;
+    private static final int SHIFTS_PER_USER = 60;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=false",
+            "spring.datasource.url=jdbc:h2upsert:mem:summary-load-platform;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "logging.level.root=WARN" })
+    class PlatformThreads extends LoadRun {
+
+        PlatformThreads() {
+            super("platform");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=true",
+            "spring.datasource.url=jdbc:h2upsert:mem:summary-load-virtual;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "logging.level.root=WARN" })
+    class VirtualThreads extends LoadRun {
+
+        VirtualThreads() {
+            super("virtual");
+        }
+    }
+
+    /** One server configuration: its own context, port and database. */
+    abstract class LoadRun {
+
+        private final String label;
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private ServletWebServerApplicationContext webServerContext;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private ShiftRollupService shiftRollupService;
+
+        private final HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        LoadRun(String label) {
+            this.label = label;
+        }
+
+        @Test
+        void summaryUnderLoad() throws Exception {
+            seed();
+            System.out.printf("%s: Tomcat runs requests on %s%n", label, ((TomcatWebServer) webServerContext
+                    .getWebServer()).getTomcat().getConnector().getProtocolHandler().getExecutor().getClass()
+                    .getSimpleName());
+            List<String> sessions = logIn();
+            run("warm-up", sessions);
+            Result result = run(label, sessions);
+
+            assertThat(result.unexpected()).isZero();
+            assertThat(result.ok()).isPositive();
+        }
+
+        private void seed() {
+            List<Object[]> rows = new ArrayList<>();
+            LocalDate today = LocalDate.now();
+            long id = 1;
+            for (int user = 0; user < USERS; user++) {
+                for (int i = 0; i < SHIFTS_PER_USER; i++) {
+                    rows.add(new Object[] { id++, "load-" + user, today.minusDays(i), LocalTime.of(7, 0),
+                            LocalTime.of(15, 0), "משמרת בוקר", 8.0, 408.0, 0.0, 0.0 });
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO shifts (id, user_id, date, start_time, end_time, shift_type, hours,"
+                    + " salary, overtime_salary, tip_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            shiftRollupService.reconcileAll();
+        }
+
+        // What a completed OAuth2 login leaves behind: a session holding the user's security context
+        private List<String> logIn() throws Exception {
+            Context context = (Context) ((TomcatWebServer) webServerContext.getWebServer()).getTomcat().getHost()
+                    .findChildren()[0];
+            List<String> sessionIds = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                DefaultOAuth2User principal = new DefaultOAuth2User(AuthorityUtils.createAuthorityList("OAUTH2_USER"),
+                        Map.of("sub", "load-" + user), "sub");
+                Session session = context.getManager().createSession(null);
+                session.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                        new SecurityContextImpl(new OAuth2AuthenticationToken(principal, principal.getAuthorities(),
+                                "google")));
+                sessionIds.add(session.getId());
+            }
+            return sessionIds;
+        }
+
+        private Result run(String label, List<String> sessions) throws Exception {
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            AtomicInteger unexpected = new AtomicInteger();
+            URI summary = URI.create("http://localhost:" + port + "/api/summary");
+
+            long start = System.nanoTime();
+            try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> results = new ArrayList<>();
+                for (String session : sessions) {
+                    HttpRequest request = HttpRequest.newBuilder(summary)
+                            .header("Cookie", "JSESSIONID=" + session)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    results.add(users.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_USER; r++) {
+                            long t0 = System.nanoTime();
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            latencies.add(System.nanoTime() - t0);
+                            switch (status) {
+                                case 200 -> ok.incrementAndGet();
+                                case 503 -> rejected.incrementAndGet();
+                                default -> unexpected.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-8s %6d requests in %.2fs (%.0f req/s), p50 %.1f ms, p99 %.1f ms, 503s %d, other %d%n",
+                    label, sorted.length, seconds, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), rejected.get(), unexpected.get());
+            return new Result(ok.get(), rejected.get(), unexpected.get());
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, p * sorted.length)] / 1e6;
+    }
+
+    private record Result(int ok, int rejected, int unexpected) {
+    }
+}
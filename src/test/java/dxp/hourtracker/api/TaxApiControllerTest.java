@@ -0,0 +1,122 @@
+package dxp.hourtracker.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dxp.hourtracker.shift.ShiftRollup;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2upsert:mem:tax-api;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1" })
+@AutoConfigureMockMvc
+class TaxApiControllerTest {
+
+    private static final String USER = "tax-user";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+    }
+
+    private static double[] months(double... values) {
+        double[] gross = new double[12];
+        System.arraycopy(values, 0, gross, 0, values.length);
+        return gross;
+    }
+
+    @Test
+    void projectionAveragesCompletedMonthsOnly() {
+        // Mid-April: Jan-Mar are complete, April has a few days so far
+        double[] gross = months(6000, 6000, 9000, 1500);
+
+        boolean[] projected = TaxApiController.projectRestOfYear(gross, LocalDate.of(2026, 4, 5));
+
+        assertThat(gross[3]).isEqualTo(7000.0);
+        assertThat(gross[11]).isEqualTo(7000.0);
+        assertThat(projected).containsExactly(false, false, false, true, true, true, true, true, true, true, true,
+                true);
+    }
+
+    @Test
+    void projectionStartsAtTheFirstMonthWithEarnings() {
+        // Started working in March
+        double[] gross = months(0, 0, 4000, 8000);
+
+        TaxApiController.projectRestOfYear(gross, LocalDate.of(2026, 5, 10));
+
+        assertThat(gross[4]).isEqualTo(6000.0);
+    }
+
+    @Test
+    void projectionKeepsHigherScheduledMonths() {
+        double[] gross = months(5000, 5000);
+        gross[5] = 8000; // a busy June already on the schedule
+        gross[6] = 1000; // a few July shifts: still projected
+
+        boolean[] projected = TaxApiController.projectRestOfYear(gross, LocalDate.of(2026, 3, 15));
+
+        assertThat(gross[5]).isEqualTo(8000.0);
+        assertThat(projected[5]).isFalse();
+        assertThat(gross[6]).isEqualTo(5000.0);
+        assertThat(projected[6]).isTrue();
+    }
+
+    @Test
+    void earlyJanuaryProratesTheCurrentMonth() {
+        double[] gross = months(1000);
+
+        boolean[] projected = TaxApiController.projectRestOfYear(gross, LocalDate.of(2026, 1, 5));
+
+        assertThat(gross[0]).isCloseTo(1000.0 * 31 / 5, within(0.001));
+        assertThat(gross[1]).isCloseTo(6200.0, within(0.001));
+        assertThat(projected[0]).isTrue();
+    }
+
+    @Test
+    void pastYearIsActualOnly() throws Exception {
+        for (int month = 1; month <= 3; month++) {
+            LocalDate day = LocalDate.of(2024, month, 10);
+            rollupRepository.save(ShiftRollup.builder().userId(USER).workplaceId(1L).periodDate(day)
+                    .periodMonth(ShiftRollup.periodMonthOf(day)).periodWeek(ShiftRollup.periodWeekOf(day))
+                    .hours(100.0).salary(5000.0).shiftCount(12).build());
+        }
+
+        String body = mockMvc.perform(get("/api/tax/annual").param("year", "2024")
+                .with(oauth2Login().attributes(a -> a.putAll(Map.of("sub", USER)))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode response = objectMapper.readTree(body);
+
+        assertThat(response.get("months")).hasSize(12);
+        response.get("months").forEach(month -> assertThat(month.get("projected").asBoolean()).isFalse());
+        assertThat(response.get("months").get(0).get("hours").asDouble()).isEqualTo(100.0);
+        assertThat(response.get("yearToDate").get("months").asInt()).isEqualTo(12);
+        assertThat(response.get("yearToDate").get("grossSalary").asDouble()).isEqualTo(15000.0);
+        assertThat(response.get("annual").get("grossSalary").asDouble()).isEqualTo(15000.0);
+    }
+}
@@ -0,0 +1,60 @@
+package dxp.hourtracker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class DbConcurrencyFilterTest {
+
+    private final DbConcurrencyFilter filter = new DbConcurrencyFilter(1, 10);
+
+    private int call(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            if (req.isAsyncSupported()) {
+                req.startAsync(); // like a StreamingResponseBody handler
+            }
+        });
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(boolean async) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/history/stream");
+        request.setAsyncSupported(async);
+        return request;
+    }
+
+    @Test
+    void syncRequestReleasesItsSlotWhenItReturns() throws Exception {
+        assertThat(call(request(false))).isEqualTo(200);
+        assertThat(call(request(false))).isEqualTo(200);
+    }
+
+    @Test
+    void asyncRequestHoldsItsSlotUntilTheResponseCompletes() throws Exception {
+        MockHttpServletRequest streaming = request(true);
+        assertThat(call(streaming)).isEqualTo(200);
+
+        // Controller returned, but the stream is still being written
+        assertThat(call(request(false))).isEqualTo(503);
+
+        ((MockAsyncContext) streaming.getAsyncContext()).complete();
+        assertThat(call(request(false))).isEqualTo(200);
+
+        // Released once, not twice: the single slot is taken again by the next stream
+        assertThat(call(request(true))).isEqualTo(200);
+        assertThat(call(request(false))).isEqualTo(503);
+    }
+
+    @Test
+    void limitFollowsThePoolLessBackgroundJobs() {
+        assertThat(DbConcurrencyFilter.maxConcurrentRequests(20, 4, 3)).isEqualTo(5);
+        assertThat(DbConcurrencyFilter.maxConcurrentRequests(10, 4, 3)).isEqualTo(2);
+        assertThatThrownBy(() -> DbConcurrencyFilter.maxConcurrentRequests(6, 4, 3))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class IsraeliTaxCalculatorServiceTest {
+
+    private final IsraeliTaxCalculatorService calculator = new IsraeliTaxCalculatorService();
+
+    // Straight walk over the published brackets
+    private static double bracketWalk(double gross) {
+        double[][] brackets = { { 7010, 0.10 }, { 10060, 0.14 }, { 19000, 0.20 }, { 25100, 0.31 },
+                { 46690, 0.35 }, { Double.MAX_VALUE, 0.47 } };
+        double tax = 0;
+        double previous = 0;
+        for (double[] bracket : brackets) {
+            if (gross <= previous)
+                break;
+            tax += (Math.min(gross, bracket[0]) - previous) * bracket[1];
+            previous = bracket[0];
+        }
+        return tax;
+    }
+
+    @Test
+    void prefixSummedBracketsMatchBracketWalk() {
+        double[] grosses = { -5, 0, 0.01, 3500, 7010, 7010.01, 10060, 15000, 19000, 25100, 30000, 46690, 46691,
+                120000 };
+        for (double gross : grosses) {
+            assertThat(IsraeliTaxCalculatorService.calculateIncomeTax(gross)).as("gross %s", gross)
+                    .isCloseTo(bracketWalk(gross), within(1e-6));
+        }
+    }
+
+    @Test
+    void breakdownAddsUp() {
+        TaxProfile profile = TaxProfile.of(true, true, true, false, false, null, LocalDate.of(2026, 3, 1));
+        NetSalaryBreakdown b = calculator.calculateNetSalary(12000, profile);
+
+        assertThat(b.grossSalary()).isEqualTo(12000.0);
+        assertThat(b.pensionDeduction()).isEqualTo(720.0);
+        assertThat(b.studyFundDeduction()).isEqualTo(300.0);
+        assertThat(b.creditPoints()).isEqualTo(2.25);
+        assertThat(b.incomeTaxDeduction()).isCloseTo(bracketWalk(12000) - 2.25 * 242, within(0.01));
+        assertThat(b.netSalary()).isCloseTo(b.grossSalary() - b.totalDeductions(), within(0.01));
+    }
+
+    @Test
+    void soldierBenefitFollowsDischargeWindow() {
+        LocalDate discharge = LocalDate.of(2024, 1, 15);
+        assertThat(TaxProfile.of(true, true, false, false, true, discharge, LocalDate.of(2026, 3, 1))
+                .soldierBenefit()).isTrue();
+        assertThat(TaxProfile.of(true, true, false, false, true, discharge, LocalDate.of(2027, 3, 1))
+                .soldierBenefit()).isFalse();
+        assertThat(TaxProfile.of(true, true, false, false, false, discharge, LocalDate.of(2026, 3, 1))
+                .soldierBenefit()).isFalse();
+    }
+
+    @Test
+    void batchMatchesSingleCalls() {
+        TaxProfile profile = TaxProfile.of(true, true, false, true, false, null, LocalDate.of(2026, 3, 1));
+        double[] year = { 0, 4200.5, 7010, 9800, 15000, 22000, 31000, 50000, 4200.5, 0, 1, 8000 };
+
+        NetSalaryBreakdown[] results = calculator.calculateNetSalaries(year, profile);
+
+        assertThat(results).hasSize(12);
+        for (int i = 0; i < year.length; i++) {
+            assertThat(results[i]).isEqualTo(new IsraeliTaxCalculatorService().calculateNetSalary(year[i], profile));
+        }
+    }
+
+    @Test
+    void annualTaxOfEvenYearEqualsWithheld() {
+        TaxProfile profile = TaxProfile.of(true, true, false, false, false, null, LocalDate.of(2026, 3, 1));
+        NetSalaryBreakdown month = calculator.calculateNetSalary(15000, profile);
+
+        assertThat(calculator.calculateAnnualIncomeTax(12 * 15000, 12 * month.creditPoints()))
+                .isCloseTo(12 * month.incomeTaxDeduction(), within(0.05));
+        // Uneven months: the year is taxed on its total, so less than withholding at peak months
+        double withheld = 6 * calculator.calculateNetSalary(4000, profile).incomeTaxDeduction()
+                + 6 * calculator.calculateNetSalary(26000, profile).incomeTaxDeduction();
+        assertThat(calculator.calculateAnnualIncomeTax(6 * 4000 + 6 * 26000, 12 * 2.25)).isLessThan(withheld);
+    }
+}
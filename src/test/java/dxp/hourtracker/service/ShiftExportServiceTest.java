@@ -0,0 +1,108 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+@DataJpaTest
+@Import({ ShiftExportService.class, ShiftHistoryService.class, ShiftTypeRegistry.class, RateLookupService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShiftExportServiceTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate FRIDAY = LocalDate.of(2026, 3, 6);
+
+    @Autowired
+    private ShiftExportService exportService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    @BeforeEach
+    void seed() {
+        Long workplaceId = workplaceRepository.save(Workplace.builder().userId(USER).name("Cafe, Ltd")
+                .hourlyRate(50.0).shabbatStartHour(15).shabbatEndHour(5).build()).getId();
+        // 13:00-17:00 on Friday: 2h regular + 2h at 150%
+        shiftRepository.save(Shift.builder().userId(USER).workplaceId(workplaceId).date(FRIDAY)
+                .startTime(LocalTime.of(13, 0)).endTime(LocalTime.of(17, 0)).shiftType("ערב").hours(4.0)
+                .salary(250.0).overtimeSalary(0.0).tipAmount(10.0).build());
+        shiftRepository.save(Shift.builder().userId(USER).workplaceId(workplaceId).date(FRIDAY.minusDays(4))
+                .startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0)).shiftType("בוקר").hours(9.0)
+                .salary(462.5).overtimeHours(1.0).overtimeSalary(62.5).tipAmount(0.0).build());
+        // Outside the range
+        shiftRepository.save(Shift.builder().userId(USER).workplaceId(workplaceId).date(FRIDAY.plusMonths(1))
+                .startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0)).hours(8.0).salary(400.0).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        shiftRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    private byte[] export(ShiftExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(USER, null, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void csvSplitsPayPerRowAndTotals() throws Exception {
+        String[] lines = new String(export(ShiftExportService.Format.CSV), StandardCharsets.UTF_8)
+                .substring(1) // BOM
+                .split("\r\n");
+
+        assertThat(lines).hasSize(4);
+        // Oldest first; base, Shabbat premium, overtime, tips, total
+        assertThat(lines[1]).isEqualTo("2026-03-02,\"Cafe, Ltd\",בוקר,07:00,15:00,9.0,1.0,400.0,0.0,62.5,0.0,462.5");
+        assertThat(lines[2]).isEqualTo("2026-03-06,\"Cafe, Ltd\",ערב,13:00,17:00,4.0,0.0,200.0,50.0,0.0,10.0,260.0");
+        assertThat(lines[3]).endsWith(",,,,13.0,1.0,600.0,50.0,62.5,10.0,722.5");
+    }
+
+    @Test
+    void xlsxIsAZipWithTheSheet() throws Exception {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(export(ShiftExportService.Format.XLSX)))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(parts).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels");
+        assertThat(parts.get("xl/worksheets/sheet1.xml"))
+                .contains("<t>Cafe, Ltd</t>", "<c><v>50.0</v></c>", "<c><v>722.5</v></c>")
+                .endsWith("</sheetData></worksheet>");
+    }
+
+    @Test
+    void csvNeutralizesFormulas() {
+        assertThat(ShiftExportService.csvText("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+        assertThat(ShiftExportService.csvText("בוקר")).isEqualTo("בוקר");
+    }
+}
@@ -0,0 +1,203 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.config.BackgroundDbSlots;
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+@DataJpaTest
+@Import({ ShiftImportService.class, ShiftService.class, ShiftTypeRegistry.class, RateLookupService.class,
+        WageCalculatorService.class, ShiftRollupService.class, ShiftHistoryService.class, DataVersionService.class,
+        BackgroundDbSlots.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShiftImportServiceTest {
+
+    private static final String USER = "user-1";
+
+    @Autowired
+    private ShiftImportService importService;
+
+    @SpyBean
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    private Long workplaceId;
+
+    @BeforeEach
+    void seed() {
+        workplaceId = workplaceRepository.save(Workplace.builder().userId(USER).name("Cafe, Ltd").hourlyRate(50.0)
+                .isDefault(true).build()).getId();
+        shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר").unpaidBreakMinutes(0).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        shiftTypeRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    private ShiftImportService.Progress importCsv(String csv) throws Exception {
+        Path file = Files.createTempFile("import-test-", ".csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        String jobId = importService.start(USER, file, null).jobId();
+        for (int i = 0; i < 600; i++) {
+            ShiftImportService.Progress progress = importService.progress(USER, jobId).orElseThrow();
+            if (progress.status() == ShiftImportService.Status.DONE
+                    || progress.status() == ShiftImportService.Status.FAILED) {
+                assertThat(file).doesNotExist();
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("import did not finish");
+    }
+
+    @Test
+    void importsChunksAndUpdatesRollup() throws Exception {
+        StringBuilder csv = new StringBuilder("date,startTime,endTime,shiftType,tipAmount\n");
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 1_200; i++) {
+            csv.append(day.plusDays(i)).append(",07:00,15:00,MORNING,").append(i % 2 == 0 ? "10" : "").append('\n');
+        }
+
+        ShiftImportService.Progress progress = importCsv(csv.toString());
+
+        assertThat(progress.status()).isEqualTo(ShiftImportService.Status.DONE);
+        assertThat(progress.rows()).isEqualTo(1_200);
+        assertThat(progress.imported()).isEqualTo(1_200);
+        assertThat(shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, workplaceId))
+                .hasSize(1_200)
+                .allSatisfy(s -> assertThat(s.getSalary()).isEqualTo(
+                        s.getDate().getDayOfWeek() == DayOfWeek.SATURDAY ? 600.0 : 400.0));
+        assertThat(rollupRepository.findAllByUserId(USER)).hasSize(1_200);
+    }
+
+    @Test
+    void readsTheExportFormat() throws Exception {
+        String csv = "\uFEFFתאריך,מקום עבודה,סוג משמרת,התחלה,סיום,שעות,טיפים\r\n"
+                + "2026-03-02,\"Cafe, Ltd\",בוקר,07:00,15:00,8.0,5.0\r\n"
+                + "3/3/2026,\"Cafe, Ltd\",בוקר,07:00,15:00,8.0,0.0\r\n"
+                + "סה\"כ,,,,,16.0,5.0\r\n";
+
+        ShiftImportService.Progress progress = importCsv(csv);
+
+        assertThat(progress.status()).isEqualTo(ShiftImportService.Status.DONE);
+        assertThat(progress.imported()).isEqualTo(2);
+        assertThat(shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, workplaceId))
+                .extracting(s -> s.getDate().toString())
+                .containsExactly("2026-03-03", "2026-03-02");
+    }
+
+    @Test
+    void anInvalidRowFailsTheWholeFile() throws Exception {
+        String csv = "date,startTime,endTime,shiftType,workplace\n"
+                + "2026-03-02,07:00,15:00,MORNING,\n"
+                + "2026-03-03,07:00,15:00,NO_SUCH_TYPE,\n"
+                + "2026-03-04,07:00,15:00,MORNING,Elsewhere\n"
+                + "2026-03-05,7am,15:00,MORNING,\n";
+
+        ShiftImportService.Progress progress = importCsv(csv);
+
+        assertThat(progress.status()).isEqualTo(ShiftImportService.Status.FAILED);
+        assertThat(progress.failed()).isEqualTo(3);
+        assertThat(progress.errors()).extracting(ShiftImportService.RowError::line)
+                .containsExactlyInAnyOrder(3, 4, 5);
+        assertThat(progress.imported()).isZero();
+        assertThat(shiftRepository.count()).isZero();
+    }
+
+    @Test
+    void aFailedInsertDeletesTheChunksAlreadyImportedAndTheFileCanBeRetried() throws Exception {
+        StringBuilder csv = new StringBuilder("date,startTime,endTime,shiftType\n");
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 1_200; i++) {
+            csv.append(day.plusDays(i)).append(",07:00,15:00,MORNING\n");
+        }
+        // Three chunks, each committed on its own; the second insert fails
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("connection lost");
+            }
+            return invocation.callRealMethod();
+        }).when(shiftService).saveShifts(anyString(), any());
+
+        ShiftImportService.Progress failed = importCsv(csv.toString());
+
+        assertThat(failed.status()).isEqualTo(ShiftImportService.Status.FAILED);
+        assertThat(failed.message()).isEqualTo("Import failed, nothing was imported");
+        assertThat(failed.imported()).isZero();
+        assertThat(shiftRepository.count()).isZero();
+        assertThat(rollupRepository.findAllByUserId(USER))
+                .allSatisfy(r -> assertThat(r.getShiftCount()).isZero())
+                .allSatisfy(r -> assertThat(r.getSalary()).isZero());
+
+        ShiftImportService.Progress retried = importCsv(csv.toString());
+
+        assertThat(retried.status()).isEqualTo(ShiftImportService.Status.DONE);
+        assertThat(shiftRepository.count()).isEqualTo(1_200);
+        assertThat(rollupRepository.findAllByUserId(USER))
+                .hasSize(1_200)
+                .allSatisfy(r -> assertThat(r.getShiftCount()).isEqualTo(1));
+    }
+
+    @Test
+    void uploadingTheSameFileAgainReplacesItsShifts() throws Exception {
+        String csv = "date,startTime,endTime,shiftType\n"
+                + "2026-03-02,07:00,15:00,MORNING\n"
+                + "2026-03-03,07:00,15:00,MORNING\n";
+        String other = "date,startTime,endTime,shiftType\n"
+                + "2026-03-03,08:00,15:00,MORNING\n";
+
+        importCsv(csv);
+        importCsv(other);
+        ShiftImportService.Progress again = importCsv(csv);
+
+        assertThat(again.status()).isEqualTo(ShiftImportService.Status.DONE);
+        assertThat(shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, workplaceId))
+                .extracting(s -> s.getDate() + " " + s.getStartTime())
+                .containsExactlyInAnyOrder("2026-03-02 07:00", "2026-03-03 07:00", "2026-03-03 08:00");
+        assertThat(rollupRepository.findAllByUserId(USER))
+                .extracting(r -> r.getPeriodDate() + " " + r.getShiftCount())
+                .containsExactlyInAnyOrder("2026-03-02 1", "2026-03-03 2");
+    }
+}
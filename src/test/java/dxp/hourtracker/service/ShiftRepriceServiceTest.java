@@ -0,0 +1,196 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.config.BackgroundDbSlots;
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.RepriceJob;
+import dxp.hourtracker.shift.RepriceJobRepository;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import dxp.hourtracker.workplace.WorkplaceRateRepository;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+@DataJpaTest
+@Import({ ShiftRepriceService.class, ShiftService.class, ShiftTypeRegistry.class, RateLookupService.class,
+        WageCalculatorService.class, ShiftRollupService.class, ShiftHistoryService.class, DataVersionService.class,
+        WorkplaceRateService.class, BackgroundDbSlots.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShiftRepriceServiceTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int SHIFTS = 700;
+
+    @Autowired
+    private ShiftRepriceService repriceService;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @Autowired
+    private RateLookupService rateLookupService;
+
+    @Autowired
+    private WorkplaceRateService workplaceRateService;
+
+    @Autowired
+    private WorkplaceRateRepository workplaceRateRepository;
+
+    @Autowired
+    private RepriceJobRepository jobRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    private Long workplaceId;
+    private Map<Long, Double> originalSalaries;
+
+    @BeforeEach
+    void seed() {
+        workplaceId = workplaceRepository.save(Workplace.builder().userId(USER).name("Cafe").hourlyRate(50.0)
+                .isDefault(true).build()).getId();
+        shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר").unpaidBreakMinutes(0).build());
+
+        // One shift a day, in batches the size createShifts allows
+        for (int start = 0; start < SHIFTS; start += ShiftService.MAX_BATCH_SIZE) {
+            List<Map<String, Object>> payloads = new ArrayList<>();
+            for (int i = start; i < Math.min(SHIFTS, start + ShiftService.MAX_BATCH_SIZE); i++) {
+                payloads.add(Map.of("shiftCode", "MORNING", "date", FIRST_DAY.plusDays(i).toString(),
+                        "startTime", "07:00", "endTime", "15:00", "workplaceId", workplaceId));
+            }
+            shiftService.createShifts(USER, payloads);
+        }
+        originalSalaries = new HashMap<>();
+        shiftRepository.findAll().forEach(s -> originalSalaries.put(s.getId(), s.getSalary()));
+
+        raiseRateFrom(FIRST_DAY);
+    }
+
+    private void raiseRateFrom(LocalDate effectiveFrom) {
+        Workplace workplace = workplaceRepository.findById(workplaceId).orElseThrow();
+        WorkplaceRate previous = WorkplaceRate.of(workplace);
+        workplace.setHourlyRate(60.0);
+        workplaceRateService.save(workplace, previous, effectiveFrom);
+        rateLookupService.evictWorkplace(workplaceId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jobRepository.deleteAll();
+        workplaceRateRepository.deleteAll();
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        shiftTypeRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    private RepriceJob awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 600; i++) {
+            RepriceJob job = jobRepository.findById(jobId).orElseThrow();
+            if (job.getStatus() != RepriceJob.Status.RUNNING) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("reprice did not finish");
+    }
+
+    private void assertRepricedFrom(LocalDate from) {
+        for (Shift shift : shiftRepository.findAll()) {
+            double original = originalSalaries.get(shift.getId());
+            // Regular and Shabbat pay both scale with the hourly rate
+            double expected = shift.getDate().isBefore(from) ? original : original * 60.0 / 50.0;
+            assertThat(shift.getSalary()).as("salary on %s", shift.getDate()).isCloseTo(expected, within(0.001));
+        }
+    }
+
+    @Test
+    void repricesFromTheDateInChunksAndKeepsTheRollupExact() throws Exception {
+        LocalDate from = FIRST_DAY.plusDays(100);
+
+        RepriceJob job = awaitFinished(repriceService.start(USER, workplaceId, from).getId());
+
+        assertThat(job.getStatus()).isEqualTo(RepriceJob.Status.DONE);
+        assertThat(job.getProcessed()).isEqualTo(SHIFTS - 100); // two chunks
+        assertThat(job.getChanged()).isEqualTo(SHIFTS - 100);
+        assertRepricedFrom(from);
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+    }
+
+    @Test
+    void usesTheRatesInEffectOnEachShiftsDate() throws Exception {
+        // Back to 50 from the start, then 60 again from day 250
+        Workplace workplace = workplaceRepository.findById(workplaceId).orElseThrow();
+        WorkplaceRate previous = WorkplaceRate.of(workplace);
+        workplace.setHourlyRate(50.0);
+        workplaceRateService.save(workplace, previous, FIRST_DAY);
+        raiseRateFrom(FIRST_DAY.plusDays(250));
+
+        assertThat(workplaceRateRepository.findByWorkplaceIdOrderByValidFromAsc(workplaceId))
+                .extracting(WorkplaceRate::getValidFrom, WorkplaceRate::getValidTo, WorkplaceRate::getHourlyRate)
+                .containsExactly(
+                        tuple(WorkplaceRate.BEGINNING, FIRST_DAY, 50.0),
+                        tuple(FIRST_DAY, FIRST_DAY.plusDays(250), 50.0),
+                        tuple(FIRST_DAY.plusDays(250), null, 60.0));
+
+        RepriceJob job = awaitFinished(repriceService.start(USER, workplaceId, FIRST_DAY).getId());
+
+        assertThat(job.getStatus()).isEqualTo(RepriceJob.Status.DONE);
+        assertThat(job.getChanged()).isEqualTo(SHIFTS - 250);
+        assertRepricedFrom(FIRST_DAY.plusDays(250));
+    }
+
+    @Test
+    void resumesAnInterruptedJobFromItsCursor() throws Exception {
+        // As if the app stopped after committing a chunk that ended on day 300
+        Shift lastDone = shiftRepository.findAll().stream()
+                .filter(s -> s.getDate().equals(FIRST_DAY.plusDays(300))).findFirst().orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(RepriceJob.builder().id("interrupted").userId(USER).workplaceId(workplaceId)
+                .fromDate(FIRST_DAY).status(RepriceJob.Status.RUNNING).cursorDate(lastDone.getDate())
+                .cursorId(lastDone.getId()).processed(301).createdAt(now).updatedAt(now).build());
+
+        assertThat(repriceService.resumeAll()).isEqualTo(1);
+        RepriceJob job = awaitFinished("interrupted");
+
+        assertThat(job.getStatus()).isEqualTo(RepriceJob.Status.DONE);
+        assertThat(job.getProcessed()).isEqualTo(SHIFTS);
+        assertRepricedFrom(FIRST_DAY.plusDays(301));
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+    }
+}
@@ -0,0 +1,198 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.shift.MonthlyTotals;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.shift.ShiftTotals;
+
+@DataJpaTest
+@Import({ ShiftRollupService.class, ShiftHistoryService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // each call commits, as it would per request
+class ShiftRollupServiceTest {
+
+    private static final String USER = "user-1";
+
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 3, 1); // a Sunday
+    private static final LocalDate MONTH_END = LocalDate.of(2026, 3, 31);
+    private static final LocalDate WEEK_START = LocalDate.of(2026, 3, 8);
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+    }
+
+    private Shift shift(Long workplaceId, LocalDate date, LocalTime start, double hours, double salary, Double tip) {
+        Shift saved = shiftRepository.save(Shift.builder()
+                .userId(USER)
+                .workplaceId(workplaceId)
+                .date(date)
+                .startTime(start)
+                .endTime(start.plusHours((long) hours))
+                .hours(hours)
+                .salary(salary)
+                .tipAmount(tip)
+                .build());
+        rollupService.add(saved);
+        return saved;
+    }
+
+    private ShiftTotals totals(Long workplaceId) {
+        return rollupRepository.sumSummaryTotals(USER, workplaceId, MONTH_START, MONTH_END,
+                MONTH_START, MONTH_END, WEEK_START, TODAY);
+    }
+
+    @Test
+    void totalsFollowPayPeriodBoundaries() {
+        shift(1L, MONTH_START, LocalTime.of(5, 0), 8, 400, 10.0); // belongs to February
+        shift(1L, MONTH_START, LocalTime.of(7, 0), 8, 400, 20.0);
+        shift(2L, LocalDate.of(2026, 3, 5), LocalTime.of(7, 0), 6, 300, null);
+        shift(1L, WEEK_START, LocalTime.of(6, 0), 4, 200, null); // belongs to the previous week
+        shift(1L, LocalDate.of(2026, 3, 9), LocalTime.of(22, 0), 8, 500, 5.0);
+        shift(1L, LocalDate.of(2026, 3, 12), LocalTime.of(7, 0), 8, 400, null); // after today
+        shift(1L, LocalDate.of(2026, 4, 1), LocalTime.of(7, 0), 8, 400, 50.0); // next month
+
+        ShiftTotals all = totals(null);
+        assertThat(all.getMonthHours()).isEqualTo(34.0);
+        assertThat(all.getMonthSalary()).isEqualTo(1800.0);
+        assertThat(all.getMonthTips()).isEqualTo(25.0);
+        assertThat(all.getWeekHours()).isEqualTo(8.0);
+
+        ShiftTotals workplace = totals(2L);
+        assertThat(workplace.getMonthHours()).isEqualTo(6.0);
+        assertThat(workplace.getMonthTips()).isEqualTo(0.0);
+        assertThat(workplace.getWeekHours()).isEqualTo(0.0);
+    }
+
+    @Test
+    void aShiftOnTheFirstBeforeTheBoundaryCountsInThePreviousMonth() {
+        shift(1L, MONTH_START, LocalTime.of(5, 0), 8, 400, null);
+
+        LocalDate februaryStart = LocalDate.of(2026, 2, 1);
+        LocalDate februaryEnd = LocalDate.of(2026, 2, 28);
+        ShiftTotals february = rollupRepository.sumSummaryTotals(USER, null, februaryStart, februaryEnd,
+                februaryStart, februaryEnd, LocalDate.of(2026, 2, 22), februaryEnd);
+        assertThat(february.getMonthSalary()).isEqualTo(400.0);
+        assertThat(february.getWeekHours()).isEqualTo(8.0);
+        assertThat(totals(null).getMonthSalary()).isEqualTo(0.0);
+    }
+
+    @Test
+    void removeSubtractsAndReconcileRepairsDrift() {
+        Shift first = shift(1L, LocalDate.of(2026, 3, 9), LocalTime.of(7, 0), 8, 400, 10.0);
+        shift(1L, LocalDate.of(2026, 3, 9), LocalTime.of(15, 0), 8, 400, null);
+
+        rollupService.remove(first);
+        shiftRepository.delete(first);
+        assertThat(totals(1L).getMonthSalary()).isEqualTo(400.0);
+        assertThat(rollupService.reconcileUser(USER)).isFalse();
+
+        // A write that bypassed the rollup
+        shiftRepository.save(Shift.builder()
+                .userId(USER).workplaceId(1L).date(LocalDate.of(2026, 3, 20))
+                .startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0))
+                .hours(8.0).salary(400.0).build());
+
+        assertThat(rollupService.reconcileUser(USER)).isTrue();
+        assertThat(totals(1L).getMonthSalary()).isEqualTo(800.0);
+        assertThat(rollupService.reconcileUser(USER)).isFalse();
+    }
+
+    @Test
+    void monthlyTotalsGroupByPayPeriodMonth() {
+        shift(1L, MONTH_START, LocalTime.of(5, 0), 8, 400, 10.0); // February period
+        shift(1L, MONTH_START, LocalTime.of(7, 0), 8, 400, 20.0);
+        shift(2L, LocalDate.of(2026, 3, 20), LocalTime.of(7, 0), 6, 300, null);
+
+        List<MonthlyTotals> months = rollupRepository.sumMonthlyTotals(USER, null,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31));
+
+        assertThat(months).extracting(MonthlyTotals::getMonth).containsExactly("2026-02", "2026-03");
+        assertThat(months.get(1).getSalary()).isEqualTo(700.0);
+        assertThat(months.get(1).getShiftCount()).isEqualTo(2L);
+        assertThat(rollupRepository.sumMonthlyTotals(USER, 2L, LocalDate.of(2026, 1, 1),
+                LocalDate.of(2026, 12, 31))).singleElement().extracting(MonthlyTotals::getHours).isEqualTo(6.0);
+    }
+
+    @Test
+    void addingToADayLeavesOtherWorkplacesRowsAlone() {
+        LocalDate day = LocalDate.of(2026, 3, 9);
+        shift(1L, day, LocalTime.of(7, 0), 8, 400, null);
+        shift(2L, day, LocalTime.of(7, 0), 6, 300, null);
+        shift(null, day, LocalTime.of(7, 0), 4, 200, null);
+
+        // Each lands on an existing row of the day
+        shift(1L, day, LocalTime.of(16, 0), 2, 100, null);
+        shift(null, day, LocalTime.of(16, 0), 1, 50, null);
+
+        assertThat(rollupRepository.findAllByUserId(USER))
+                .extracting(r -> r.getWorkplaceId() + ":" + r.getShiftCount() + ":" + r.getSalary())
+                .containsExactlyInAnyOrder("1:2:500.0", "2:1:300.0", "null:2:250.0");
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+    }
+
+    @Test
+    void concurrentFirstWritesForALegacyDayShareOneRow() throws Exception {
+        int writers = 8;
+        List<Shift> shifts = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            shifts.add(shiftRepository.save(Shift.builder()
+                    .userId(USER).date(TODAY) // no workplace: a legacy shift
+                    .startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0))
+                    .hours(8.0).salary(400.0).build()));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(writers)) {
+            for (Shift shift : shifts) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    rollupService.add(shift);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(); // none failed on the unique key
+            }
+        }
+
+        assertThat(rollupRepository.findAllByUserId(USER)).singleElement().satisfies(row -> {
+            assertThat(row.getWorkplaceId()).isNull();
+            assertThat(row.getShiftCount()).isEqualTo(writers);
+            assertThat(row.getSalary()).isEqualTo(writers * 400.0);
+        });
+        assertThat(rollupService.reconcileUser(USER)).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+@DataJpaTest
+@Import({ ShiftService.class, ShiftTypeRegistry.class, RateLookupService.class, WageCalculatorService.class,
+        ShiftRollupService.class, ShiftHistoryService.class, DataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShiftServiceBatchTest {
+
+    private static final String USER = "user-1";
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    private Long workplaceId;
+    private Long foreignWorkplaceId;
+
+    @BeforeEach
+    void seed() {
+        workplaceId = workplaceRepository.save(Workplace.builder().userId(USER).name("wp").hourlyRate(50.0).build())
+                .getId();
+        foreignWorkplaceId = workplaceRepository.save(Workplace.builder().userId("someone-else").name("other")
+                .hourlyRate(50.0).build()).getId();
+        shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר").unpaidBreakMinutes(0).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        shiftTypeRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    private Map<String, Object> payload(Long workplace, LocalDate date, String code) {
+        return Map.of("workplaceId", workplace, "date", date.toString(), "shiftCode", code,
+                "startTime", "07:00", "endTime", "15:00");
+    }
+
+    @Test
+    void savesValidItemsAndReportsFailuresByIndex() {
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        LocalDate monday = LocalDate.of(2026, 3, 2);
+        for (int day = 0; day < 4; day++) {
+            payloads.add(payload(workplaceId, monday.plusDays(day), "MORNING"));
+        }
+        payloads.add(payload(workplaceId, monday, "NO_SUCH_TYPE"));
+        payloads.add(payload(foreignWorkplaceId, monday, "MORNING"));
+        payloads.add(Map.of("shiftCode", "MORNING"));
+
+        List<ShiftService.BatchItemResult> results = shiftService.createShifts(USER, payloads);
+
+        assertThat(results).extracting(ShiftService.BatchItemResult::index)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(results.subList(0, 4)).allSatisfy(r -> assertThat(r.shift()).isNotNull());
+        assertThat(results.subList(4, 7)).allSatisfy(r -> assertThat(r.error()).isNotBlank());
+
+        List<Shift> saved = shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, workplaceId);
+        assertThat(saved).hasSize(4).allSatisfy(s -> assertThat(s.getSalary()).isEqualTo(400.0));
+        assertThat(saved).extracting(Shift::getId).doesNotHaveDuplicates();
+
+        assertThat(rollupRepository.findAllByUserId(USER))
+                .hasSize(4)
+                .allSatisfy(row -> assertThat(row.getShiftCount()).isEqualTo(1));
+        assertThat(shiftService.createShifts(USER, List.of()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void sameDayShiftsShareOneRollupRow() {
+        LocalDate day = LocalDate.of(2026, 3, 3);
+        shiftService.createShifts(USER, List.of(
+                payload(workplaceId, day, "MORNING"),
+                Map.of("workplaceId", workplaceId, "date", day.toString(), "shiftCode", "MORNING",
+                        "startTime", "15:00", "endTime", "19:00")));
+
+        assertThat(rollupRepository.findAllByUserId(USER)).singleElement().satisfies(row -> {
+            assertThat(row.getShiftCount()).isEqualTo(2);
+            assertThat(row.getHours()).isEqualTo(12.0);
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+/**
+ * Shifts reference their type by id: the display name, updateShift and
+ * endShift follow shiftTypeId rather than the name stored on the row, and
+ * only types outside the shift's workplace and the defaults hit the database.
+ */
+@DataJpaTest
+@Import({ ShiftService.class, ShiftTypeRegistry.class, RateLookupService.class, WageCalculatorService.class,
+        ShiftRollupService.class, ShiftHistoryService.class, DataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShiftTypeRegistryTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private ShiftTypeRegistry registry;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @SpyBean
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    private Long cafeId;
+    private Long barId;
+    private ShiftType cafeMorning;
+    private ShiftType defaultNight;
+    private ShiftType barClosing;
+
+    @BeforeEach
+    void seed() {
+        cafeId = workplaceRepository.save(Workplace.builder().userId(USER).name("Cafe").hourlyRate(50.0).build())
+                .getId();
+        barId = workplaceRepository.save(Workplace.builder().userId(USER).name("Bar").hourlyRate(60.0).build())
+                .getId();
+        cafeMorning = shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר")
+                .workplaceId(cafeId).unpaidBreakMinutes(0).build());
+        defaultNight = shiftTypeRepository.save(ShiftType.builder().code("NIGHT").nameHe("לילה")
+                .unpaidBreakMinutes(0).build());
+        barClosing = shiftTypeRepository.save(ShiftType.builder().code("CLOSING").nameHe("סגירה")
+                .workplaceId(barId).unpaidBreakMinutes(0).build());
+        registry.invalidate(cafeId);
+        registry.invalidate(barId);
+        registry.invalidate(null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        shiftTypeRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    // As V3 left it: the id is authoritative, the stored name may be stale
+    private Shift storedShift(Long workplaceId, Long shiftTypeId, String storedName) {
+        return shiftRepository.save(Shift.builder().userId(USER).workplaceId(workplaceId).date(DATE)
+                .startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(15, 0)).hours(8.0).salary(400.0)
+                .shiftTypeId(shiftTypeId).shiftType(storedName).build());
+    }
+
+    @Test
+    void displayNameFollowsTheIdAndFallsBackToTheStoredName() {
+        assertThat(registry.displayName(storedShift(cafeId, cafeMorning.getId(), "old name"))).isEqualTo("בוקר");
+        assertThat(registry.displayName(storedShift(cafeId, defaultNight.getId(), null))).isEqualTo("לילה");
+        assertThat(registry.displayName(storedShift(null, defaultNight.getId(), null))).isEqualTo("לילה");
+        // Unmatched by the backfill: the name on the row is all there is
+        assertThat(registry.displayName(storedShift(cafeId, null, "משמרת ישנה"))).isEqualTo("משמרת ישנה");
+    }
+
+    @Test
+    void findByIdOnlyHitsTheRepositoryForAnotherWorkplacesType() {
+        registry.findById(cafeId, cafeMorning.getId()); // loads the snapshots
+        registry.findById(cafeId, defaultNight.getId());
+        clearInvocations(shiftTypeRepository);
+
+        assertThat(registry.findById(cafeId, cafeMorning.getId())).contains(cafeMorning);
+        assertThat(registry.findById(cafeId, defaultNight.getId())).contains(defaultNight);
+        verify(shiftTypeRepository, never()).findById(any());
+
+        // E.g. a shift moved to the cafe that still points at the bar's type
+        assertThat(registry.findById(cafeId, barClosing.getId())).get()
+                .extracting(ShiftType::getNameHe).isEqualTo("סגירה");
+        verify(shiftTypeRepository).findById(barClosing.getId());
+
+        assertThat(registry.findById(cafeId, -1L)).isEmpty();
+        assertThat(registry.findById(cafeId, null)).isEmpty();
+    }
+
+    @Test
+    void updateShiftWithoutACodeKeepsTheTypeById() {
+        // The stored name matches nothing, so only the id can resolve the type
+        Shift shift = storedShift(cafeId, cafeMorning.getId(), "old name");
+
+        Shift updated = shiftService.updateShift(shift.getId(), USER,
+                Map.of("startTime", "08:00", "endTime", "16:00"));
+
+        assertThat(updated.getShiftTypeId()).isEqualTo(cafeMorning.getId());
+        assertThat(updated.getStartTime()).isEqualTo(LocalTime.of(8, 0));
+    }
+
+    @Test
+    void updateShiftMovedToAnotherWorkplaceResolvesTheTypeThereByName() {
+        Shift shift = storedShift(barId, barClosing.getId(), "סגירה");
+        ShiftType cafeClosing = shiftTypeRepository.save(ShiftType.builder().code("CAFE_CLOSE").nameHe("סגירה")
+                .workplaceId(cafeId).unpaidBreakMinutes(0).build());
+        registry.invalidate(cafeId);
+
+        Shift updated = shiftService.updateShift(shift.getId(), USER, Map.of("workplaceId", cafeId));
+
+        assertThat(updated.getWorkplaceId()).isEqualTo(cafeId);
+        assertThat(updated.getShiftTypeId()).isEqualTo(cafeClosing.getId());
+    }
+
+    @Test
+    void endShiftResolvesTheTypeById() {
+        Shift shift = storedShift(cafeId, defaultNight.getId(), "old name");
+
+        Shift ended = shiftService.endShift(shift.getId(), USER);
+
+        assertThat(ended.getShiftTypeId()).isEqualTo(defaultNight.getId());
+        assertThat(registry.displayName(ended)).isEqualTo("לילה");
+    }
+}
@@ -0,0 +1,136 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.shift.ShiftTotals;
+import dxp.hourtracker.user.UserSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SummaryServiceTest {
+
+    private static final String USER = "user-1";
+
+    private final ShiftRepository shiftRepository = mock(ShiftRepository.class);
+    private final ShiftRollupRepository rollupRepository = mock(ShiftRollupRepository.class);
+    private final RateLookupService rateLookupService = mock(RateLookupService.class);
+    private final IsraeliTaxCalculatorService taxCalculator = mock(IsraeliTaxCalculatorService.class);
+    private final ShiftTypeRegistry shiftTypeRegistry = mock(ShiftTypeRegistry.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final SummaryService summaryService = new SummaryService(shiftRepository, rollupRepository,
+            rateLookupService, taxCalculator, shiftTypeRegistry, new SimpleMeterRegistry(), transactionManager,
+            200, 4);
+
+    private final ShiftTotals totals = new ShiftTotals() {
+        public Double getMonthHours() { return 16.0; }
+        public Double getMonthSalary() { return 800.0; }
+        public Double getMonthTips() { return 30.0; }
+        public Double getWeekHours() { return 8.0; }
+    };
+
+    @BeforeEach
+    void setUp() {
+        UserSettings settings = new UserSettings();
+        settings.setHourlyRate(50.0);
+        when(rateLookupService.findSettings(USER)).thenReturn(Optional.of(settings));
+        when(rollupRepository.sumSummaryTotals(eq(USER), isNull(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(totals);
+        when(shiftRepository.findTop5ByUserIdOrderByDateDesc(USER)).thenReturn(List.of(
+                Shift.builder().id(1L).userId(USER).date(LocalDate.now()).hours(8.0).salary(400.0).build()));
+        when(taxCalculator.calculateNetSalary(anyDouble(), any(TaxProfile.class)))
+                .thenReturn(new NetSalaryBreakdown(800, 48, 0, 34.16, 2.25, 544.5, 0, 82.16, 717.84));
+    }
+
+    @Test
+    void combinesSubqueries() {
+        SummaryDto summary = summaryService.summarize(USER, null);
+
+        assertThat(summary.monthHours()).isEqualTo(16.0);
+        assertThat(summary.weekHours()).isEqualTo(8.0);
+        assertThat(summary.hourlyRate()).isEqualTo(50.0);
+        assertThat(summary.expectedMonthSalary()).isEqualTo(800.0);
+        assertThat(summary.totalTips()).isEqualTo(30.0);
+        assertThat(summary.recentShifts()).hasSize(1);
+        assertThat(summary.netSalaryBreakdown()).isNotNull();
+    }
+
+    @Test
+    void slowRecentShiftsAndFailingTaxDegrade() {
+        when(shiftRepository.findTop5ByUserIdOrderByDateDesc(USER)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+        when(taxCalculator.calculateNetSalary(anyDouble(), any(TaxProfile.class)))
+                .thenThrow(new IllegalStateException("boom"));
+
+        long start = System.nanoTime();
+        SummaryDto summary = summaryService.summarize(USER, null);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1_500);
+        assertThat(summary.recentShifts()).isEmpty();
+        assertThat(summary.netSalaryBreakdown()).isNull();
+        assertThat(summary.monthHours()).isEqualTo(16.0);
+    }
+
+    @Test
+    void slowReadsShareOneDeadline() {
+        when(rateLookupService.findSettings(USER)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return Optional.empty();
+        });
+        when(shiftRepository.findTop5ByUserIdOrderByDateDesc(USER)).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        SummaryDto summary = summaryService.summarize(USER, null);
+
+        // Separate 200 ms waits would add up to at least 400 ms
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(400);
+        assertThat(summary.hourlyRate()).isEqualTo(new UserSettings().getHourlyRate());
+        assertThat(summary.recentShifts()).isEmpty();
+    }
+
+    @Test
+    void readsRunInReadOnlyTransactionsWithATimeout() {
+        summaryService.summarize(USER, null);
+
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues()).hasSize(3).allSatisfy(definition -> {
+            assertThat(definition.isReadOnly()).isTrue();
+            assertThat(definition.getTimeout()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void missingTotalsFailTheRequest() {
+        when(rollupRepository.sumSummaryTotals(eq(USER), isNull(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> summaryService.summarize(USER, null)).isInstanceOf(IllegalStateException.class);
+    }
+}
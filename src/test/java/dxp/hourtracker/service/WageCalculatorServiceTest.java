@@ -0,0 +1,84 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class WageCalculatorServiceTest {
+
+    private final WageCalculatorService calculator = new WageCalculatorService();
+
+    private double salary(LocalDateTime start, LocalDateTime end) {
+        return calculator.calculateShiftSalary(start, end, 51.0, null, null, null);
+    }
+
+    @Test
+    void pricesWeekdayAndShabbatHours() {
+        // Tuesday
+        assertThat(salary(LocalDateTime.of(2026, 3, 3, 7, 0), LocalDateTime.of(2026, 3, 3, 15, 0)))
+                .isEqualTo(8 * 51.0);
+        // Friday 12:00 - Saturday 02:00: 3h regular, 11h Shabbat
+        assertThat(salary(LocalDateTime.of(2026, 3, 6, 12, 0), LocalDateTime.of(2026, 3, 7, 2, 0)))
+                .isCloseTo(3 * 51.0 + 11 * 76.5, within(1e-9));
+        // Saturday 22:00 - Sunday 06:00: Shabbat ends at 05:00
+        assertThat(salary(LocalDateTime.of(2026, 3, 7, 22, 0), LocalDateTime.of(2026, 3, 8, 6, 0)))
+                .isCloseTo(7 * 76.5 + 51.0, within(1e-9));
+        // Thursday night into Friday afternoon
+        assertThat(salary(LocalDateTime.of(2026, 3, 5, 22, 0), LocalDateTime.of(2026, 3, 6, 16, 0)))
+                .isCloseTo(17 * 51.0 + 76.5, within(1e-9));
+        assertThat(salary(LocalDateTime.of(2026, 3, 3, 15, 0), LocalDateTime.of(2026, 3, 3, 7, 0)))
+                .isZero();
+    }
+
+    @Test
+    void usesCustomShabbatRateAndHours() {
+        // Window Friday 18:00 - Sunday 00:00 at a flat 100/h
+        assertThat(calculator.calculateShiftSalary(LocalDateTime.of(2026, 3, 6, 16, 0),
+                LocalDateTime.of(2026, 3, 6, 20, 0), 50.0, 100.0, 18, 0))
+                .isEqualTo(2 * 50.0 + 2 * 100.0);
+    }
+
+    @Test
+    void countsEveryWeekOfLongSpans() {
+        long start = WageCalculatorService.epochMinute(LocalDateTime.of(2026, 3, 2, 0, 0));
+        long end = WageCalculatorService.epochMinute(LocalDateTime.of(2026, 3, 16, 0, 0));
+        // Two full windows of Friday 15:00 - Sunday 05:00 (38h each)
+        assertThat(WageCalculatorService.shabbatOverlapMinutes(start, end, 15, 5)).isEqualTo(2 * 38 * 60);
+    }
+
+    @Test
+    void matchesMinuteByMinuteCount() {
+        Random random = new Random(42);
+        long base = WageCalculatorService.epochMinute(LocalDateTime.of(1969, 12, 1, 0, 0));
+        for (int i = 0; i < 300; i++) {
+            long start = base + random.nextInt(60 * 24 * 120);
+            long end = start + random.nextInt(60 * 24 * 20);
+            int startHour = random.nextInt(24);
+            int endHour = random.nextInt(24);
+            assertThat(WageCalculatorService.shabbatOverlapMinutes(start, end, startHour, endHour))
+                    .as("span %d-%d, window %d-%d", start, end, startHour, endHour)
+                    .isEqualTo(bruteForce(start, end, startHour, endHour));
+        }
+    }
+
+    private static long bruteForce(long start, long end, int startHour, int endHour) {
+        long count = 0;
+        for (long minute = start; minute < end; minute++) {
+            LocalDateTime t = LocalDateTime.of(1970, 1, 1, 0, 0).plusMinutes(minute);
+            DayOfWeek day = t.getDayOfWeek();
+            int minuteOfDay = t.getHour() * 60 + t.getMinute();
+            boolean inside = (day == DayOfWeek.FRIDAY && minuteOfDay >= startHour * 60)
+                    || day == DayOfWeek.SATURDAY
+                    || (day == DayOfWeek.SUNDAY && minuteOfDay < endHour * 60);
+            if (inside) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,300 @@
+package dxp.hourtracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dxp.hourtracker.config.BackgroundDbSlots;
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+import dxp.hourtracker.shift.RepriceJob;
+import dxp.hourtracker.shift.RepriceJobRepository;
+import dxp.hourtracker.shift.Shift;
+import dxp.hourtracker.shift.ShiftRepository;
+import dxp.hourtracker.shift.ShiftRollup;
+import dxp.hourtracker.shift.ShiftRollupRepository;
+import dxp.hourtracker.workplace.Workplace;
+import dxp.hourtracker.workplace.WorkplaceRate;
+import dxp.hourtracker.workplace.WorkplaceRateRepository;
+import dxp.hourtracker.workplace.WorkplaceRepository;
+
+@DataJpaTest
+@Import({ WorkplaceService.class, ShiftRepriceService.class, ShiftService.class, ShiftTypeRegistry.class,
+        RateLookupService.class, WageCalculatorService.class, ShiftRollupService.class, ShiftHistoryService.class,
+        DataVersionService.class, WorkplaceRateService.class, BackgroundDbSlots.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WorkplaceServiceTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private WorkplaceService workplaceService;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @Autowired
+    private WorkplaceRepository workplaceRepository;
+
+    @Autowired
+    private WorkplaceRateRepository workplaceRateRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private RepriceJobRepository jobRepository;
+
+    @Autowired
+    private ShiftTypeRegistry shiftTypeRegistry;
+
+    private Workplace cafe;
+    private Workplace bar;
+    private Long barMorningId;
+
+    @BeforeEach
+    void seed() {
+        cafe = workplaceRepository.save(Workplace.builder().userId(USER).name("Cafe").hourlyRate(50.0)
+                .isDefault(true).build());
+        bar = workplaceRepository.save(Workplace.builder().userId(USER).name("Bar").hourlyRate(60.0).build());
+        shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר").workplaceId(cafe.getId())
+                .unpaidBreakMinutes(0).build());
+        shiftTypeRepository.save(ShiftType.builder().code("EVENING").nameHe("ערב").workplaceId(cafe.getId())
+                .unpaidBreakMinutes(0).build());
+        barMorningId = shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר בר")
+                .workplaceId(bar.getId()).unpaidBreakMinutes(0).build()).getId();
+        WorkplaceRate cafeRates = WorkplaceRate.of(cafe);
+        cafeRates.setValidFrom(WorkplaceRate.BEGINNING);
+        workplaceRateRepository.save(cafeRates);
+
+        // Overlapping days, so moving the cafe's rollup rows has to merge into the bar's
+        createShifts(cafe.getId(), "MORNING", 30);
+        createShifts(cafe.getId(), "EVENING", 5);
+        createShifts(bar.getId(), "MORNING", 10);
+    }
+
+    private void createShifts(Long workplaceId, String code, int days) {
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            Map<String, Object> payload = new HashMap<>(Map.of("shiftCode", code,
+                    "date", FIRST_DAY.plusDays(i).toString(),
+                    "startTime", "EVENING".equals(code) ? "16:00" : "07:00",
+                    "endTime", "EVENING".equals(code) ? "22:00" : "15:00"));
+            if (workplaceId != null) { // null: a legacy shift
+                payload.put("workplaceId", workplaceId);
+            }
+            payloads.add(payload);
+        }
+        shiftService.createShifts(USER, payloads);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jobRepository.deleteAll();
+        rollupRepository.deleteAll();
+        shiftRepository.deleteAll();
+        shiftTypeRepository.deleteAll();
+        workplaceRateRepository.deleteAll();
+        workplaceRepository.deleteAll();
+    }
+
+    private List<Long> defaultIds() {
+        return workplaceRepository.findByUserId(USER).stream().filter(Workplace::isDefault).map(Workplace::getId)
+                .toList();
+    }
+
+    private Workplace updates(String name, double hourlyRate, boolean makeDefault) {
+        return Workplace.builder().name(name).hourlyRate(hourlyRate).isDefault(makeDefault).build();
+    }
+
+    @Test
+    void updateToDefaultLeavesExactlyOneDefault() {
+        Workplace third = workplaceRepository.save(Workplace.builder().userId(USER).name("Shop").isDefault(true)
+                .build());
+
+        workplaceService.update(USER, bar.getId(), updates("Bar", 60.0, true), LocalDate.now());
+
+        assertThat(defaultIds()).containsExactly(bar.getId());
+        assertThat(workplaceRepository.findById(third.getId()).orElseThrow().isDefault()).isFalse();
+    }
+
+    @Test
+    void aFailedUpdateKeepsTheOldDefault() {
+        // No name: the save fails after the default switch has run
+        assertThatThrownBy(() -> workplaceService.update(USER, bar.getId(), updates(null, 70.0, true),
+                LocalDate.now())).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(defaultIds()).containsExactly(cafe.getId());
+        assertThat(workplaceRepository.findById(bar.getId()).orElseThrow().getHourlyRate()).isEqualTo(60.0);
+    }
+
+    @Test
+    void anArchivedWorkplaceCantBeUpdatedOrMadeDefault() {
+        workplaceService.delete(USER, bar, WorkplaceService.DeleteMode.ARCHIVE, null);
+
+        assertThat(workplaceService.update(USER, bar.getId(), updates("Bar", 60.0, true), LocalDate.now()))
+                .isEmpty();
+        assertThat(workplaceService.update("someone-else", cafe.getId(), updates("Cafe", 50.0, false),
+                LocalDate.now())).isEmpty();
+        assertThat(defaultIds()).containsExactly(cafe.getId());
+    }
+
+    @Test
+    void cascadeDeletesTheShiftsAndEverythingKeyedByTheWorkplace() {
+        workplaceService.delete(USER, bar, WorkplaceService.DeleteMode.CASCADE, null);
+
+        assertThat(workplaceRepository.findById(bar.getId())).isEmpty();
+        assertThat(shiftRepository.countByUserIdAndWorkplaceId(USER, bar.getId())).isZero();
+        assertThat(shiftRepository.countByUserIdAndWorkplaceId(USER, cafe.getId())).isEqualTo(35);
+        assertThat(shiftTypeRepository.findAllByWorkplaceIdOrderBySortOrderAsc(bar.getId())).isEmpty();
+        assertThat(rollupRepository.findAllByUserIdAndWorkplaceId(USER, bar.getId())).isEmpty();
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+        assertThat(defaultIds()).containsExactly(cafe.getId());
+    }
+
+    @Test
+    void reassignMovesShiftsRemapsTheirTypesAndMergesTheRollup() {
+        Map<Long, Double> salaries = new HashMap<>();
+        shiftRepository.findAll().forEach(s -> salaries.put(s.getId(), s.getSalary()));
+
+        workplaceService.delete(USER, cafe, WorkplaceService.DeleteMode.REASSIGN, bar.getId());
+
+        assertThat(workplaceRepository.findById(cafe.getId())).isEmpty();
+        assertThat(workplaceRateRepository.findByWorkplaceIdOrderByValidFromAsc(cafe.getId())).isEmpty();
+        assertThat(shiftTypeRepository.findAllByWorkplaceIdOrderBySortOrderAsc(cafe.getId())).isEmpty();
+
+        List<Shift> moved = shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, bar.getId());
+        assertThat(moved).hasSize(45);
+        // MORNING exists at the bar; EVENING has no match there or in the system defaults
+        assertThat(moved).filteredOn(s -> s.getStartTime().getHour() == 7)
+                .allSatisfy(s -> assertThat(s.getShiftTypeId()).isEqualTo(barMorningId));
+        assertThat(moved).filteredOn(s -> s.getStartTime().getHour() == 16)
+                .allSatisfy(s -> assertThat(s.getShiftTypeId()).isNull());
+        // Pay isn't recomputed: the cafe's shifts keep the cafe's rate
+        assertThat(moved).allSatisfy(s -> assertThat(s.getSalary()).isEqualTo(salaries.get(s.getId())));
+
+        assertThat(rollupRepository.findAllByUserId(USER)).extracting(ShiftRollup::getWorkplaceId)
+                .containsOnly(bar.getId());
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+        assertThat(defaultIds()).containsExactly(bar.getId());
+    }
+
+    @Test
+    void reassignNeedsAnotherWorkplaceOfTheSameUser() {
+        Workplace someoneElses = workplaceRepository.save(Workplace.builder().userId("user-2").name("Other")
+                .build());
+
+        assertThatThrownBy(() -> workplaceService.delete(USER, cafe, WorkplaceService.DeleteMode.REASSIGN, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workplaceService.delete(USER, cafe, WorkplaceService.DeleteMode.REASSIGN,
+                cafe.getId())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> workplaceService.delete(USER, cafe, WorkplaceService.DeleteMode.REASSIGN,
+                someoneElses.getId())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(shiftRepository.countByUserIdAndWorkplaceId(USER, cafe.getId())).isEqualTo(35);
+    }
+
+    @Test
+    void archiveKeepsTheShiftsButTakesNoNewOnes() {
+        workplaceService.delete(USER, cafe, WorkplaceService.DeleteMode.ARCHIVE, null);
+
+        assertThat(workplaceRepository.findByUserIdAndArchivedFalse(USER)).extracting(Workplace::getId)
+                .containsExactly(bar.getId());
+        assertThat(shiftRepository.countByUserIdAndWorkplaceId(USER, cafe.getId())).isEqualTo(35);
+        assertThat(defaultIds()).containsExactly(bar.getId());
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+
+        assertThatThrownBy(() -> shiftService.createShift(USER, Map.of("shiftCode", "MORNING",
+                "date", FIRST_DAY.plusDays(60).toString(), "startTime", "07:00", "endTime", "15:00",
+                "workplaceId", cafe.getId())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("archived");
+    }
+
+    @Test
+    void reassignsLegacyShiftsInADateRangeAndRepricesThem() throws Exception {
+        shiftTypeRepository.save(ShiftType.builder().code("MORNING").nameHe("בוקר").unpaidBreakMinutes(0).build());
+        shiftTypeRegistry.invalidate(null);
+        createShifts(null, "MORNING", 20);
+        Map<LocalDate, Double> barSalaries = new HashMap<>();
+        shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, bar.getId())
+                .forEach(s -> barSalaries.put(s.getDate(), s.getSalary()));
+
+        WorkplaceService.ReassignResult result = workplaceService.reassignShifts(USER, null, bar.getId(),
+                FIRST_DAY.plusDays(5), FIRST_DAY.plusDays(9), true);
+
+        assertThat(result.moved()).isEqualTo(5);
+        assertThat(shiftRepository.countLegacyShiftsForUser(USER)).isEqualTo(15);
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+
+        RepriceJob job = result.repriceJob();
+        for (int i = 0; i < 600 && job.getStatus() == RepriceJob.Status.RUNNING; i++) {
+            Thread.sleep(50);
+            job = jobRepository.findById(job.getId()).orElseThrow();
+        }
+        assertThat(job.getStatus()).isEqualTo(RepriceJob.Status.DONE);
+        assertThat(job.getFromDate()).isEqualTo(FIRST_DAY.plusDays(5));
+
+        // Priced like the bar's own shifts on the same days
+        List<Shift> barShifts = shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc(USER, bar.getId());
+        assertThat(barShifts).hasSize(15).allSatisfy(s -> {
+            assertThat(s.getShiftTypeId()).isEqualTo(barMorningId);
+            assertThat(s.getSalary()).isEqualTo(barSalaries.get(s.getDate()));
+        });
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+
+        // The rest: days 10-19 have no bar rows yet, so the legacy rows are repointed
+        assertThat(workplaceService.reassignShifts(USER, null, bar.getId(), null, null, false).moved())
+                .isEqualTo(15);
+        assertThat(shiftRepository.countLegacyShiftsForUser(USER)).isZero();
+        // Days 0-9 were merged into the bar's rows, which leaves the legacy ones empty like remove() does
+        assertThat(rollupRepository.findAllByUserIdAndWorkplaceId(USER, null))
+                .hasSize(10).allSatisfy(r -> assertThat(r.getShiftCount()).isZero());
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+    }
+
+    @Test
+    void reassignCountsShiftsBeforeTheBoundaryToThePreviousDay() {
+        shiftTypeRepository.save(ShiftType.builder().code("NIGHT").nameHe("לילה").workplaceId(cafe.getId())
+                .unpaidBreakMinutes(0).build());
+        shiftTypeRegistry.invalidate(cafe.getId());
+        for (String start : List.of("02:00", "06:28", "06:29")) {
+            shiftService.createShift(USER, Map.of("shiftCode", "NIGHT", "date", FIRST_DAY.plusDays(5).toString(),
+                    "startTime", start, "endTime", "06:45", "workplaceId", cafe.getId()));
+        }
+
+        WorkplaceService.ReassignResult result = workplaceService.reassignShifts(USER, cafe.getId(), bar.getId(),
+                FIRST_DAY.plusDays(5), FIRST_DAY.plusDays(5), false);
+
+        // Day 5's morning shift and the three night ones
+        assertThat(result.moved()).isEqualTo(4);
+        assertThat(rollupRepository.findAllByUserIdAndWorkplaceId(USER, bar.getId()))
+                .filteredOn(r -> r.getPeriodDate().equals(FIRST_DAY.plusDays(4)))
+                .singleElement().extracting(ShiftRollup::getShiftCount).isEqualTo(1 + 2);
+        assertThat(rollupService.reconcileUser(USER)).as("rollup drifted").isFalse();
+    }
+}
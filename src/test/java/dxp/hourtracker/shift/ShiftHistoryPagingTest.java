@@ -0,0 +1,94 @@
+package dxp.hourtracker.shift;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Walks the keyset-paged history ({@link ShiftRepository#findHistoryFirstPage},
+ * {@link ShiftRepository#findHistoryPageAfter}) and checks it visits every shift
+ * exactly once, newest first, also when a page ends in the middle of a day.
+ */
+@DataJpaTest
+class ShiftHistoryPagingTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate BUSY_DAY = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    private List<Shift> saved;
+
+    @BeforeEach
+    void seed() {
+        List<Shift> shifts = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            shifts.add(shift(USER, 1L, BUSY_DAY.minusDays(day + 1)));
+        }
+        // Seven shifts on one date, so pages of 3 break inside the day twice
+        for (int i = 0; i < 7; i++) {
+            shifts.add(shift(USER, i % 2 == 0 ? 1L : 2L, BUSY_DAY));
+        }
+        shifts.add(shift(USER, 1L, BUSY_DAY.plusDays(1)));
+        shifts.add(shift("someone-else", 1L, BUSY_DAY));
+        saved = shiftRepository.saveAllAndFlush(shifts);
+    }
+
+    private static Shift shift(String userId, Long workplaceId, LocalDate date) {
+        return Shift.builder()
+                .userId(userId)
+                .workplaceId(workplaceId)
+                .date(date)
+                .startTime(LocalTime.of(7, 0))
+                .endTime(LocalTime.of(15, 0))
+                .hours(8.0)
+                .salary(400.0)
+                .build();
+    }
+
+    private List<Long> walk(Long workplaceId, int pageSize) {
+        PageRequest page = PageRequest.ofSize(pageSize);
+        List<Long> visited = new ArrayList<>();
+        List<Shift> shifts = shiftRepository.findHistoryFirstPage(USER, workplaceId, page);
+        while (!shifts.isEmpty()) {
+            assertThat(shifts).hasSizeLessThanOrEqualTo(pageSize);
+            shifts.forEach(s -> visited.add(s.getId()));
+            Shift last = shifts.get(shifts.size() - 1);
+            shifts = shiftRepository.findHistoryPageAfter(USER, workplaceId, last.getDate(), last.getId(), page);
+        }
+        return visited;
+    }
+
+    private List<Long> expected(Long workplaceId) {
+        return saved.stream()
+                .filter(s -> s.getUserId().equals(USER))
+                .filter(s -> workplaceId == null || workplaceId.equals(s.getWorkplaceId()))
+                .sorted(Comparator.comparing(Shift::getDate).thenComparing(Shift::getId).reversed())
+                .map(Shift::getId)
+                .toList();
+    }
+
+    @Test
+    void pagesBreakingInsideADayVisitEveryShiftOnce() {
+        for (int pageSize : new int[] { 1, 3, 4, 13, 50 }) {
+            assertThat(walk(null, pageSize)).as("page size %d", pageSize).containsExactlyElementsOf(expected(null));
+        }
+    }
+
+    @Test
+    void workplaceFilterAppliesToEveryPage() {
+        assertThat(walk(2L, 2)).containsExactlyElementsOf(expected(2L)).hasSize(3);
+        assertThat(walk(1L, 3)).containsExactlyElementsOf(expected(1L));
+    }
+}
@@ -0,0 +1,120 @@
+package dxp.hourtracker.shift;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dxp.hourtracker.entity.ShiftType;
+import dxp.hourtracker.repository.ShiftTypeRepository;
+
+/**
+ * Runs EXPLAIN on the SQL that Hibernate generates for the hot finders and
+ * checks that the planner picks the composite indexes from the migrations.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "dxp.hourtracker.shift.ShiftIndexUsageTest$CapturedSql")
+class ShiftIndexUsageTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 1, 31);
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftTypeRepository shiftTypeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        List<Shift> shifts = new ArrayList<>();
+        for (int user = 0; user < 20; user++) {
+            for (int day = 0; day < 60; day++) {
+                shifts.add(Shift.builder()
+                        .userId("user-" + user)
+                        .workplaceId(day % 3 == 0 ? null : (long) (user * 10 + day % 2))
+                        .date(FROM.plusDays(day))
+                        .startTime(LocalTime.of(7, 0))
+                        .endTime(LocalTime.of(15, 0))
+                        .hours(8.0)
+                        .salary(400.0)
+                        .build());
+            }
+        }
+        shiftRepository.saveAll(shifts);
+
+        for (long workplace = 1; workplace <= 20; workplace++) {
+            for (int order = 1; order <= 5; order++) {
+                shiftTypeRepository.save(ShiftType.builder()
+                        .code("CODE_" + order)
+                        .workplaceId(workplace)
+                        .nameHe("shift " + order)
+                        .sortOrder(order)
+                        .build());
+            }
+        }
+        shiftRepository.flush();
+        shiftTypeRepository.flush();
+    }
+
+    @Test
+    void workplaceFindersUseUserWorkplaceDateIndex() {
+        assertThat(planOf(() -> shiftRepository.findByUserIdAndWorkplaceIdAndDateBetweenOrderByDateDesc(
+                "user-1", 10L, FROM, TO), "user-1", 10L, FROM, TO))
+                .containsIgnoringCase("idx_shifts_user_workplace_date");
+
+        assertThat(planOf(() -> shiftRepository.findAllByUserIdAndWorkplaceIdOrderByDateDesc("user-1", 10L),
+                "user-1", 10L))
+                .containsIgnoringCase("idx_shifts_user_workplace_date");
+
+        assertThat(planOf(() -> shiftRepository.countLegacyShiftsForUser("user-1"), "user-1"))
+                .containsIgnoringCase("idx_shifts_user_workplace_date");
+    }
+
+    @Test
+    void userFindersUseUserDateIndex() {
+        assertThat(planOf(() -> shiftRepository.findByUserIdAndDateBetweenOrderByDateDesc("user-1", FROM, TO),
+                "user-1", FROM, TO))
+                .containsIgnoringCase("idx_shifts_user_date");
+
+        assertThat(planOf(() -> shiftRepository.findByUserIdAndDateGreaterThanEqualOrderByDateAsc("user-1", TO),
+                "user-1", TO))
+                .containsIgnoringCase("idx_shifts_user_date");
+    }
+
+    @Test
+    void shiftTypeListUsesWorkplaceSortIndex() {
+        assertThat(planOf(() -> shiftTypeRepository.findAllByWorkplaceIdOrderBySortOrderAsc(3L), 3L))
+                .containsIgnoringCase("idx_shift_types_workplace_sort");
+    }
+
+    private String planOf(Runnable finder, Object... args) {
+        CapturedSql.statements.clear();
+        finder.run();
+        String sql = CapturedSql.statements.get(CapturedSql.statements.size() - 1);
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, args).toString();
+    }
+
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
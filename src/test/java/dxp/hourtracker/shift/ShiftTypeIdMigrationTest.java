@@ -0,0 +1,86 @@
+package dxp.hourtracker.shift;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * V3 backfills shifts.shift_type_id from the stored Hebrew name. Runs the
+ * migrations up to V2 on a fresh database, inserts shifts the way the app
+ * used to store them, then applies V3 and checks which type each one got.
+ */
+class ShiftTypeIdMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void migrateToV2() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:v3-backfill-" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        flyway("2").migrate();
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure().dataSource(dataSource).target(target).load();
+    }
+
+    private long shiftType(Long workplaceId, String code, String nameHe) {
+        jdbc.update("INSERT INTO shift_types (code, workplace_id, name_he) VALUES (?, ?, ?)", code, workplaceId,
+                nameHe);
+        return jdbc.queryForObject("SELECT MAX(id) FROM shift_types", Long.class);
+    }
+
+    private long shift(Long workplaceId, String shiftType) {
+        jdbc.update("INSERT INTO shifts (user_id, workplace_id, date, shift_type) VALUES ('u', ?, DATE '2024-01-01', ?)",
+                workplaceId, shiftType);
+        return jdbc.queryForObject("SELECT MAX(id) FROM shifts", Long.class);
+    }
+
+    private Long shiftTypeIdOf(long shiftId) {
+        return jdbc.queryForObject("SELECT shift_type_id FROM shifts WHERE id = ?", Long.class, shiftId);
+    }
+
+    @Test
+    void backfillPrefersTheWorkplacesOwnTypeThenTheSystemDefault() {
+        long defaultMorning = shiftType(null, "MORNING", "בוקר");
+        long defaultNight = shiftType(null, "NIGHT", "לילה");
+        long cafeMorning = shiftType(10L, "MORNING", "בוקר");
+        shiftType(20L, "CLOSING", "סגירה");
+
+        long ownName = shift(10L, "בוקר");
+        long defaultName = shift(10L, "לילה");
+        long legacy = shift(null, "בוקר");
+        long otherWorkplacesName = shift(10L, "סגירה");
+        long unknown = shift(10L, "משמרת ישנה");
+        long noName = shift(10L, null);
+
+        flyway("3").migrate();
+
+        assertThat(shiftTypeIdOf(ownName)).isEqualTo(cafeMorning);
+        assertThat(shiftTypeIdOf(defaultName)).isEqualTo(defaultNight);
+        assertThat(shiftTypeIdOf(legacy)).isEqualTo(defaultMorning);
+        // Never another workplace's type; unmatched rows keep their name as the fallback
+        assertThat(shiftTypeIdOf(otherWorkplacesName)).isNull();
+        assertThat(shiftTypeIdOf(unknown)).isNull();
+        assertThat(shiftTypeIdOf(noName)).isNull();
+        assertThat(jdbc.queryForObject("SELECT shift_type FROM shifts WHERE id = ?", String.class, unknown))
+                .isEqualTo("משמרת ישנה");
+    }
+
+    @Test
+    void laterMigrationsApplyOnTopOfTheBackfill() {
+        long defaultMorning = shiftType(null, "MORNING", "בוקר");
+        long legacy = shift(null, "בוקר");
+
+        flyway("latest").migrate();
+
+        assertThat(shiftTypeIdOf(legacy)).isEqualTo(defaultMorning);
+    }
+}